@@ -0,0 +1,71 @@
+package com.ada.flightsproject.benchmarks;
+
+import com.ada.flightsproject.data.FlightGraphLoader;
+import com.ada.flightsproject.data.GraphSnapshotFile;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost for a synthetic timetable written to a temp CSV:
+ *
+ *   loadCsv       FlightGraphLoader.loadFlights + building the search index
+ *   loadSnapshot  GraphSnapshotFile.readIfFresh of the same timetable (the normal startup path)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    private static final long STAMP = 1L; // any value, the file is written and read by us
+
+    @Param({"2000", "10000"})
+    public int airports;
+
+    @Param({"200"})
+    public int flightsPerAirport;
+
+    @Param({"1.0"})
+    public double hubSkew;
+
+    Path dir;
+    Path csv;
+    Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticTimetable timetable = new SyntheticTimetable(airports, flightsPerAirport, hubSkew, 42);
+        dir = Files.createTempDirectory("flights-bench");
+        csv = dir.resolve("timetable.csv");
+        snapshot = dir.resolve("timetable.fgs");
+        timetable.writeCsv(csv);
+        GraphSnapshotFile.write(snapshot, timetable.build().compact(), STAMP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public FlightGraph loadCsv() {
+        FlightGraph graph = new FlightGraph();
+        FlightGraphLoader.loadFlights(graph, csv);
+        graph.departureIndex(); // ready to search, like after the snapshot load
+        return graph;
+    }
+
+    @Benchmark
+    public FlightGraph loadSnapshot() {
+        return GraphSnapshotFile.readIfFresh(snapshot, STAMP);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ada.flightsproject.benchmarks;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.service.BatchResult;
+import com.ada.flightsproject.service.BatchRouter;
+import com.ada.flightsproject.service.RouteQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query-side hot paths on a synthetic timetable:
+ *
+ *   singleQuery  FlightGraph.earliestArrival, one (source, target) pair per call
+ *   oneToAll     FlightGraph.arrivalTree, every airport from one source
+ *   batch        BatchRouter over BATCH_SIZE queries (score is per query)
+ *
+ * Queries cycle through a fixed, pre-generated list so every run asks the same questions.
+ * Run with -prof gc (BenchmarkRunner does by default) to see bytes allocated per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+    static final int QUERY_COUNT = 4096; // power of two, see Cursor
+    static final int BATCH_SIZE = 1000;
+
+    @Param({"200", "2000", "10000"})
+    public int airports;
+
+    @Param({"50", "200"})
+    public int flightsPerAirport;
+
+    @Param({"0.0", "1.0"})
+    public double hubSkew;
+
+    FlightGraph graph;
+    RouteQuery[] queries;
+    List<RouteQuery> batch;
+    BatchRouter router;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticTimetable timetable = new SyntheticTimetable(airports, flightsPerAirport, hubSkew, 42);
+        graph = timetable.build().snapshot(); // also builds CompactGraph + DepartureIndex, outside the timing
+        queries = timetable.randomQueries(QUERY_COUNT, 7).toArray(new RouteQuery[0]);
+        batch = timetable.randomQueries(BATCH_SIZE, 11);
+        router = new BatchRouter(graph);
+    }
+
+    /** Position in the query list, per benchmark thread. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        RouteQuery next(RouteQuery[] queries) {
+            return queries[next++ & (QUERY_COUNT - 1)];
+        }
+    }
+
+    @Benchmark
+    public FlightGraph.Result singleQuery(Cursor cursor) {
+        RouteQuery q = cursor.next(queries);
+        return graph.earliestArrival(q.source(), q.target(), q.startTime(), q.minLayover());
+    }
+
+    @Benchmark
+    public ArrivalTree oneToAll(Cursor cursor) {
+        RouteQuery q = cursor.next(queries);
+        return graph.arrivalTree(q.source(), q.startTime(), q.minLayover());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult batch() {
+        return router.route(batch, false);
+    }
+}
@@ -0,0 +1,156 @@
+package com.ada.flightsproject.benchmarks;
+
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.service.RouteQuery;
+import com.ada.flightsproject.utility.Utility;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Made-up weekly timetable, much bigger than the bundled CSV, for the benchmarks.
+ *
+ *   airports           how many airports (codes AAA, AAB, ... and 4 letters past ZZZ)
+ *   flightsPerAirport  average weekly departures per airport
+ *   hubSkew            0 = every airport equally busy; higher = a few hubs get most of the traffic.
+ *                      Airport i gets weight 1 / (i + 1)^hubSkew, both for how many flights leave
+ *                      it and for how likely it is to be picked as a destination (Zipf-like).
+ *
+ * The same parameters and seed always give the same timetable.
+ */
+public final class SyntheticTimetable {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+
+    public final int airports;
+    public final int flightsPerAirport;
+    public final double hubSkew;
+    public final long seed;
+
+    public SyntheticTimetable(int airports, int flightsPerAirport, double hubSkew, long seed) {
+        if (airports < 2) throw new IllegalArgumentException("Need at least 2 airports");
+        this.airports = airports;
+        this.flightsPerAirport = flightsPerAirport;
+        this.hubSkew = hubSkew;
+        this.seed = seed;
+    }
+
+    /** Receives the generated flights, one by one. */
+    public interface FlightSink {
+        void flight(String from, String to, int depart, int duration) throws IOException;
+    }
+
+    /** Airport code for index i: AAA, AAB, ..., ZZZ, AAAA, ... */
+    public static String code(int i) {
+        int letters = 3;
+        for (int cap = 26 * 26 * 26; i >= cap; cap *= 26) {
+            i -= cap;
+            letters++;
+        }
+        char[] c = new char[letters];
+        for (int k = letters - 1; k >= 0; k--) {
+            c[k] = (char) ('A' + i % 26);
+            i /= 26;
+        }
+        return new String(c);
+    }
+
+    /**
+     * Generates every flight. Departures are on a 5-minute grid, durations 45 min .. 12 h.
+     */
+    public void generate(FlightSink sink) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(seed);
+
+        // cumulative weights for picking destinations
+        double[] weight = new double[airports];
+        double total = 0;
+        for (int i = 0; i < airports; i++) {
+            weight[i] = 1.0 / Math.pow(i + 1, hubSkew);
+            total += weight[i];
+        }
+        double[] cumulative = new double[airports];
+        double run = 0;
+        for (int i = 0; i < airports; i++) {
+            run += weight[i];
+            cumulative[i] = run;
+        }
+
+        String[] codes = new String[airports];
+        for (int i = 0; i < airports; i++) codes[i] = code(i);
+
+        for (int u = 0; u < airports; u++) {
+            // busy airports get more departures; the average stays flightsPerAirport
+            long departures = Math.round(flightsPerAirport * airports * weight[u] / total);
+            for (long f = 0; f < Math.max(1, departures); f++) {
+                int v = pick(cumulative, rnd.nextDouble() * run);
+                if (v == u) v = (u + 1) % airports;
+                int depart = rnd.nextInt(WEEK / 5) * 5;
+                int duration = 45 + rnd.nextInt(12 * 60 - 45 + 1);
+                sink.flight(codes[u], codes[v], depart, duration);
+            }
+        }
+    }
+
+    /** The timetable as a (mutable) FlightGraph. */
+    public FlightGraph build() {
+        FlightGraph graph = new FlightGraph();
+        try {
+            generate((from, to, depart, duration) -> graph.addFlight(from, to, depart, depart + duration));
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // the sink above does no I/O
+        }
+        return graph;
+    }
+
+    /**
+     * Writes the timetable in the same CSV layout as FlightPathData.csv, for the load benchmarks.
+     *
+     * @return number of rows written
+     */
+    public int writeCsv(Path file) throws IOException {
+        int[] rows = {0};
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("Starting_Airport,Destination_Airport,travel_duration_(minutes),departure_time,arrival_time,day_of_flight\n");
+            generate((from, to, depart, duration) -> {
+                String[] dep = Utility.computeMinutesToDayAndTime(depart);
+                String[] arr = Utility.computeMinutesToDayAndTime(depart + duration);
+                out.write(from + "," + to + "," + duration + "," + dep[1] + "," + arr[1] + "," + dep[0] + "\n");
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    /**
+     * Random (source, target, start, layover) queries between distinct airports of this timetable.
+     */
+    public List<RouteQuery> randomQueries(int count, long querySeed) {
+        SplittableRandom rnd = new SplittableRandom(querySeed);
+        List<RouteQuery> queries = new ArrayList<>(count);
+        while (queries.size() < count) {
+            int s = rnd.nextInt(airports);
+            int t = rnd.nextInt(airports);
+            if (s == t) continue;
+            queries.add(new RouteQuery(code(s), code(t), rnd.nextInt(WEEK), 15 * rnd.nextInt(9)));
+        }
+        return queries;
+    }
+
+    private static int pick(double[] cumulative, double x) {
+        int idx = Arrays.binarySearch(cumulative, x);
+        if (idx < 0) idx = -idx - 1;
+        return Math.min(idx, cumulative.length - 1);
+    }
+
+    @Override
+    public String toString() {
+        return airports + " airports, ~" + flightsPerAirport + " flights/airport/week, skew " + hubSkew;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ada.flightsproject.benchmarks;
+
+import com.ada.flightsproject.utility.Utility;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility's week-minute <-> (day, HH:MM) conversions, which the UI and the CSV loader call per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeConversionBenchmark {
+
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+
+    int minute;
+
+    @Benchmark
+    public String[] minutesToDayAndTime() {
+        minute = (minute + 37) % Utility.MINUTES_IN_WEEK;
+        return Utility.computeMinutesToDayAndTime(minute);
+    }
+
+    @Benchmark
+    public int[] dayAndTimeToMinutes() {
+        minute = (minute + 37) % Utility.MINUTES_IN_WEEK;
+        int m = minute % Utility.MINUTES_IN_DAY;
+        String time = (m / 60 < 10 ? "0" : "") + m / 60 + (m % 60 < 10 ? ":0" : ":") + m % 60;
+        return Utility.computeDepartureArrivalMinutes(DAYS[minute / Utility.MINUTES_IN_DAY], time, 90);
+    }
+}
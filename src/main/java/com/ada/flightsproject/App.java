@@ -1,7 +1,9 @@
 package com.ada.flightsproject;
 
 import com.ada.flightsproject.dataStructures.FlightGraph;
-import com.ada.flightsproject.data.FlightGraphLoader;
+import com.ada.flightsproject.data.GraphSnapshotFile;
+import com.ada.flightsproject.metrics.SearchMetrics;
+import com.ada.flightsproject.service.FlightQueryService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -10,25 +12,40 @@ import javafx.stage.Stage;
 
 public class App extends Application {
 
+    private FlightQueryService queryService;
+
     @Override
     public void start(Stage stage) throws Exception {
 
-        // Load backend graph
-        FlightGraph graph = new FlightGraph();
-        FlightGraphLoader.loadFlights(graph, "/com/ada/flightsproject/data/FlightPathData.csv");
+        // Load backend graph: from the binary snapshot if it is still up to date, else from the CSV
+        FlightGraph graph = GraphSnapshotFile.loadOrBuild(GraphSnapshotFile.defaultPath(), "/com/ada/flightsproject/data/FlightPathData.csv");
+
+        // -Dflights.metrics=true: search statistics in JConsole under com.ada.flightsproject
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.registerMBean();
+        }
 
         FXMLLoader loader = new FXMLLoader(getClass().getResource("views/MainView.fxml"));
         Parent root = loader.load();
 
-        // Provide the graph to controller
+        // Searches run on the query service, over an immutable snapshot of the graph
+        queryService = new FlightQueryService(graph);
+
         MainController controller = loader.getController();
-        controller.setGraph(graph);
+        controller.setQueryService(queryService);
 
         stage.setScene(new Scene(root, 1000, 600));
         stage.setTitle("Flight Route Finder");
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (queryService != null) {
+            queryService.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -0,0 +1,151 @@
+package com.ada.flightsproject;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.utility.Utility;
+import javafx.collections.ObservableListBase;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Rows of the "See all flights" table, read straight from the graph's edge arrays.
+ *
+ * The model only keeps two ints per row (departure airport, edge index); a FlightRow with its
+ * formatted strings is made in get(i), and the TableView only calls get() for the rows that
+ * are actually on screen. So a million flights cost 8 MB and open instantly, instead of a
+ * million FlightRows with five Strings each.
+ *
+ *   row:      0      1      2     ...
+ *   rowFrom [ KUL,   CGK,   KUL,  ... ]   (airport ids)
+ *   rowEdge [ 17,    3,     18,   ... ]   (edge index in the CompactGraph)
+ *
+ * Sorting reorders those two arrays by a numeric key (week-minute for times, not the
+ * "Monday 09:30" strings, which would put Friday before Monday).
+ */
+public class FlightTableModel extends ObservableListBase<FlightRow> {
+
+    /** What a column sorts by. */
+    public enum SortKey { FROM, TO, DEPART, ARRIVE, DURATION }
+
+    private final CompactGraph graph;
+    private final int[] codeRank; // airport id -> position in alphabetical order (ids after a delta are not sorted)
+    private int[] rowFrom;
+    private int[] rowEdge;
+
+    /**
+     * All flights leaving `from` and landing at `to`, sorted by departure.
+     *
+     * @param from departure airport code, or null for any
+     * @param to   arrival airport code, or null for any
+     */
+    public FlightTableModel(CompactGraph graph, String from, String to) {
+        this.graph = graph;
+        int n = graph.airportCount();
+
+        Integer[] byCode = new Integer[n];
+        for (int i = 0; i < n; i++) byCode[i] = i;
+        Arrays.sort(byCode, Comparator.comparing(graph::codeOf));
+        codeRank = new int[n];
+        for (int i = 0; i < n; i++) codeRank[byCode[i]] = i;
+
+        int fromId = (from == null) ? -1 : graph.idOf(from);
+        int toId = (to == null) ? -1 : graph.idOf(to);
+        boolean unknown = (from != null && fromId < 0) || (to != null && toId < 0);
+
+        // Count first, then fill, so the arrays are exactly the right size
+        int firstAirport = fromId >= 0 ? fromId : 0;
+        int lastAirport = fromId >= 0 ? fromId + 1 : n;
+        int rows = 0;
+        if (!unknown) {
+            for (int u = firstAirport; u < lastAirport; u++) {
+                for (int e = graph.edgeBegin(u), end = graph.edgeEnd(u); e < end; e++) {
+                    if (toId < 0 || graph.edgeTo(e) == toId) rows++;
+                }
+            }
+        }
+        rowFrom = new int[rows];
+        rowEdge = new int[rows];
+        int r = 0;
+        for (int u = firstAirport; u < lastAirport && r < rows; u++) {
+            for (int e = graph.edgeBegin(u), end = graph.edgeEnd(u); e < end; e++) {
+                if (toId < 0 || graph.edgeTo(e) == toId) {
+                    rowFrom[r] = u;
+                    rowEdge[r] = e;
+                    r++;
+                }
+            }
+        }
+        reorder(SortKey.DEPART, true);
+    }
+
+    @Override
+    public FlightRow get(int index) {
+        int e = rowEdge[index];
+        int depart = graph.edgeDepart(e);
+        int duration = graph.edgeDuration(e);
+        String[] dep = Utility.computeMinutesToDayAndTime(depart);
+        String[] arr = Utility.computeMinutesToDayAndTime(depart + duration);
+        return new FlightRow(
+                graph.codeOf(rowFrom[index]),
+                graph.codeOf(graph.edgeTo(e)),
+                dep[0] + " " + dep[1],
+                arr[0] + " " + arr[1],
+                duration / 60 + "h " + (duration % 60 < 10 ? "0" : "") + duration % 60 + "m"
+        );
+    }
+
+    @Override
+    public int size() {
+        return rowEdge.length;
+    }
+
+    /**
+     * Sorts the rows and tells the table (one permutation change, no rows are copied).
+     * Ties keep their current order, so sorting by one column and then another works as expected.
+     */
+    public void sort(SortKey key, boolean ascending) {
+        int[] newPosition = reorder(key, ascending);
+        beginChange();
+        nextPermutation(0, size(), newPosition);
+        endChange();
+    }
+
+    /*
+     * Sorts (key << 32 | current row) as longs: numeric, stable, no boxing.
+     * Returns old row -> new row, which is what a permutation change needs.
+     */
+    private int[] reorder(SortKey key, boolean ascending) {
+        int rows = size();
+        long[] packed = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            int k = keyOf(key, i);
+            if (!ascending) k = Integer.MAX_VALUE - k;
+            packed[i] = ((long) k << 32) | i;
+        }
+        Arrays.parallelSort(packed);
+
+        int[] from = new int[rows];
+        int[] edge = new int[rows];
+        int[] newPosition = new int[rows];
+        for (int j = 0; j < rows; j++) {
+            int old = (int) packed[j];
+            from[j] = rowFrom[old];
+            edge[j] = rowEdge[old];
+            newPosition[old] = j;
+        }
+        rowFrom = from;
+        rowEdge = edge;
+        return newPosition;
+    }
+
+    private int keyOf(SortKey key, int row) {
+        int e = rowEdge[row];
+        return switch (key) {
+            case FROM -> codeRank[rowFrom[row]];
+            case TO -> codeRank[graph.edgeTo(e)];
+            case DEPART -> graph.edgeDepart(e);
+            case ARRIVE -> (graph.edgeDepart(e) + graph.edgeDuration(e)) % Utility.MINUTES_IN_WEEK; // as displayed
+            case DURATION -> graph.edgeDuration(e);
+        };
+    }
+}
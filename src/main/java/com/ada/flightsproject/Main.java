@@ -1,8 +1,13 @@
 package com.ada.flightsproject;
 
+import com.ada.flightsproject.algorithms.RoutingEngine;
 import com.ada.flightsproject.utility.Utility;
 import com.ada.flightsproject.dataStructures.FlightGraph;
 import com.ada.flightsproject.data.FlightGraphLoader;
+import com.ada.flightsproject.data.LoadReport;
+import com.ada.flightsproject.metrics.SearchMetrics;
+
+import java.nio.file.Path;
 
 /*
     For command line stuff and testing
@@ -23,13 +28,19 @@ public class Main {
 
         FlightGraph graph = new FlightGraph();
 
-        FlightGraphLoader.loadFlights(graph, "/com/ada/flightsproject/data/FlightPathData.csv");
+        // Pass a file path as the first argument to load that CSV instead of the bundled one
+        LoadReport report = (args.length > 0)
+                ? FlightGraphLoader.loadFlights(graph, Path.of(args[0]))
+                : FlightGraphLoader.loadFlights(graph, "/com/ada/flightsproject/data/FlightPathData.csv");
 
-        System.out.println("Loaded all flights!");
+        System.out.println(report);
+        report.problems.forEach(System.out::println);
 
         // Now you can run searches:
         int start = Utility.computeDepartureArrivalMinutes("Monday", "08:00", 0)[0];
-        FlightGraph.Result r = graph.earliestArrival("KUL", "KIX", start, 60);
+        // -Dflights.engine=dijkstra|csa|raptor|astar
+        RoutingEngine engine = RoutingEngine.fromSystemProperty(graph);
+        FlightGraph.Result r = engine.earliestArrival("KUL", "KIX", start, 60);
 
         if (r.arrivalTime == Integer.MAX_VALUE) {
             System.out.println("No route found.");
@@ -42,6 +53,9 @@ public class Main {
             }
         }
 
-
+        // -Dflights.metrics=true: how much work that search did
+        if (SearchMetrics.ENABLED) {
+            System.out.println("Search: " + FlightGraph.lastSearchCounters());
+        }
     }
 }
@@ -1,9 +1,11 @@
 package com.ada.flightsproject;
 
+import com.ada.flightsproject.algorithms.RoutingEngine;
+import com.ada.flightsproject.algorithms.TransferBoundedSearch;
 import com.ada.flightsproject.dataStructures.FlightGraph;
 import com.ada.flightsproject.dataStructures.FlightGraph.Flight;
+import com.ada.flightsproject.service.FlightQueryService;
 import com.ada.flightsproject.utility.Utility;
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
@@ -11,7 +13,8 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 public class MainController {
 
@@ -35,6 +38,9 @@ public class MainController {
     @FXML private ProgressIndicator progressIndicator; // optional in FXML
 
     private FlightGraph graph;
+    private FlightQueryService queryService; // runs the searches, holds the current timetable snapshot
+    private RoutingEngine engine;            // Dijkstra by default, -Dflights.engine=csa|raptor|astar
+    private FlightGraph engineGraph;         // the snapshot engine was built for
 
     @FXML
     public void initialize() {
@@ -54,41 +60,24 @@ public class MainController {
         );
 
         resultsTable.setPlaceholder(new Label("No results"));
+        resultsTable.setSortPolicy(this::sortTable);
         summaryLabel.setText("Ready");
         if (progressIndicator != null) progressIndicator.setVisible(false);
     }
 
-    public void setGraph(FlightGraph graph) {
+    public void setQueryService(FlightQueryService queryService) {
+        this.queryService = queryService;
+        setGraph(queryService.graph());
+    }
+
+    private void setGraph(FlightGraph graph) {
         this.graph = graph;
-        // populate airport combos from CSV (safe; no backend change)
-        Set<String> airports = loadAirportsFromCsv("/com/ada/flightsproject/data/FlightPathData.csv");
-        javafx.collections.ObservableList<String> list = javafx.collections.FXCollections.observableArrayList(airports);
-        javafx.collections.FXCollections.sort(list);
+        // populate airport combos from the graph's airport dictionary (already sorted by code)
+        ObservableList<String> list = FXCollections.observableArrayList(graph.compact().airports());
         sourceCombo.setItems(list);
         destCombo.setItems(list);
     }
 
-    private Set<String> loadAirportsFromCsv(String resourcePath) {
-        java.util.Set<String> set = new java.util.HashSet<>();
-        try (java.io.InputStream is = getClass().getResourceAsStream(resourcePath)) {
-            if (is == null) return set;
-            java.io.BufferedReader br = new java.io.BufferedReader(new java.io.InputStreamReader(is));
-            String header = br.readLine();
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] cols = line.split(",");
-                if (cols.length >= 2) {
-                    set.add(cols[0].trim());
-                    set.add(cols[1].trim());
-                }
-            }
-        } catch (Exception e) {
-            Platform.runLater(() -> summaryLabel.setText("Could not load airports list."));
-            e.printStackTrace();
-        }
-        return set;
-    }
-
     @FXML
     private void onSearchClicked() {
         String src = sourceCombo.getValue();
@@ -138,15 +127,25 @@ public class MainController {
             progressIndicator.setVisible(true);
         }
 
-        Task<FlightGraph.Result> task = new Task<>() {
+        // One search gives the earliest arrival for every hop count where it improves;
+        // the last option is the overall earliest arrival, that one comes from the configured engine.
+        Task<List<FlightGraph.Result>> task = new Task<>() {
             @Override
-            protected FlightGraph.Result call() {
-                return graph.earliestArrival(src, dst, startTime, layover);
+            protected List<FlightGraph.Result> call() {
+                // earliest arrival per number of hops, in one run, on the service's current snapshot
+                FlightGraph snapshot = queryService.graph();
+                TransferBoundedSearch hopSearch = new TransferBoundedSearch(snapshot);
+                List<FlightGraph.Result> options = new ArrayList<>(
+                        hopSearch.paretoByHops(src, dst, startTime, layover, TransferBoundedSearch.UNLIMITED));
+                if (!options.isEmpty()) {
+                    options.set(options.size() - 1, engineFor(snapshot).earliestArrival(src, dst, startTime, layover));
+                }
+                return options;
             }
         };
 
         task.setOnSucceeded(evt -> {
-            FlightGraph.Result res = task.getValue();
+            List<FlightGraph.Result> options = task.getValue();
             if (progressIndicator != null) progressIndicator.setVisible(false);
             searchButton.setDisable(false);
             resetButton.setDisable(false);
@@ -154,13 +153,14 @@ public class MainController {
                 seeAllFlightsButton.setDisable(false);
             }
 
-            if (res == null || res.arrivalTime == Integer.MAX_VALUE) {
+            if (options == null || options.isEmpty()) {
                 summaryLabel.setText("No route found.");
-                resultsTable.getItems().clear();
+                clearTable();
                 return;
             }
 
-            displayResult(res);
+            displayResult(options.get(options.size() - 1));
+            displayFewerHopOptions(options);
         });
 
         task.setOnFailed(evt -> {
@@ -175,51 +175,84 @@ public class MainController {
             if (ex != null) ex.printStackTrace();
         });
 
-        Thread t = new Thread(task, "dijkstra-search");
-        t.setDaemon(true);
-        t.start();
+        queryService.execute(task);
     }
 
+    /*
+     * Shows every flight, or only those from the selected "From" airport and/or to the selected
+     * "To" airport. The rows are a FlightTableModel over the current snapshot, so nothing is
+     * copied or formatted up front; building the row order still runs off the FX thread.
+     */
     @FXML
     private void onSeeAllFlightsClicked(ActionEvent event) {
-        if (graph == null) {
+        if (queryService == null) {
             // Safety: graph not loaded
             summaryLabel.setText("Graph not loaded.");
             return;
         }
+        String from = sourceCombo.getValue();
+        String to = destCombo.getValue();
 
-        // Collect all flights from the graph
-        ObservableList<FlightRow> rows = FXCollections.observableArrayList();
+        seeAllFlightsButton.setDisable(true);
+        summaryLabel.setText("Loading flights...");
 
-        for (Flight f : graph.getAllFlights()) {
-            // Depart / arrive in week-minutes -> (Day, HH:MM)
-            String[] dep = Utility.computeMinutesToDayAndTime(f.depart);
-            String[] arr = Utility.computeMinutesToDayAndTime(f.arrive);
-
-            String departStr = dep[0] + " " + dep[1];  // e.g. "Monday 09:30"
-            String arriveStr = arr[0] + " " + arr[1];  // e.g. "Monday 13:45"
-
-            int durationMinutes = f.arrive - f.depart;
-            String durationStr = durationMinutes + " min";
+        Task<FlightTableModel> task = new Task<>() {
+            @Override
+            protected FlightTableModel call() {
+                return new FlightTableModel(queryService.graph().compact(), from, to);
+            }
+        };
+        task.setOnSucceeded(evt -> {
+            seeAllFlightsButton.setDisable(false);
+            FlightTableModel model = task.getValue();
+            resultsTable.getSortOrder().clear();
+            resultsTable.setItems(model);
+            summaryLabel.setText("Showing " + model.size() + " flights"
+                    + (from != null ? " from " + from : "") + (to != null ? " to " + to : ""));
+        });
+        task.setOnFailed(evt -> {
+            seeAllFlightsButton.setDisable(false);
+            summaryLabel.setText("Could not list flights: " + task.getException());
+        });
+        queryService.execute(task);
+    }
 
-            rows.add(new FlightRow(
-                    f.from,
-                    f.to,
-                    departStr,
-                    arriveStr,
-                    durationStr
-            ));
+    /*
+     * Column header clicks: the FlightTableModel sorts itself numerically (it cannot be sorted
+     * through the List API); plain search results use the normal TableView sorting.
+     */
+    private boolean sortTable(TableView<FlightRow> table) {
+        if (!(table.getItems() instanceof FlightTableModel model)) {
+            return TableView.DEFAULT_SORT_POLICY.call(table);
+        }
+        if (table.getSortOrder().isEmpty()) {
+            model.sort(FlightTableModel.SortKey.DEPART, true);
+            return true;
+        }
+        // each sort is stable, so sorting by the last column first gives the full multi-column order
+        List<TableColumn<FlightRow, ?>> order = table.getSortOrder();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            TableColumn<FlightRow, ?> col = order.get(i);
+            model.sort(sortKeyOf(col), col.getSortType() == TableColumn.SortType.ASCENDING);
         }
+        return true;
+    }
 
-        // Optionally sort by departure time
-        rows.sort((a, b) -> a.depart.compareTo(b.depart));
+    private FlightTableModel.SortKey sortKeyOf(TableColumn<FlightRow, ?> col) {
+        if (col == colFrom) return FlightTableModel.SortKey.FROM;
+        if (col == colTo) return FlightTableModel.SortKey.TO;
+        if (col == colArrive) return FlightTableModel.SortKey.ARRIVE;
+        if (col == colDuration) return FlightTableModel.SortKey.DURATION;
+        return FlightTableModel.SortKey.DEPART;
+    }
 
-        resultsTable.getItems().setAll(rows);
-        summaryLabel.setText("Showing all " + rows.size() + " flights");
+    /** Empties the table (and drops a FlightTableModel, which cannot be cleared in place). */
+    private void clearTable() {
+        resultsTable.setItems(FXCollections.observableArrayList());
     }
 
     private void displayResult(FlightGraph.Result res) {
-        resultsTable.getItems().clear();
+        clearTable();
 
         String[] arrival = Utility.computeMinutesToDayAndTime(res.arrivalTime);
         summaryLabel.setText("Arrival: " + arrival[0] + " " + arrival[1] + "  (Hops: " + Math.max(0, res.airports.size()-1) + ")");
@@ -240,13 +273,41 @@ public class MainController {
         }
     }
 
+    /*
+     * The -Dflights.engine engine for this snapshot. Built again only when the timetable changed
+     * (some engines precompute things, e.g. the A* landmarks).
+     */
+    private synchronized RoutingEngine engineFor(FlightGraph snapshot) {
+        if (engineGraph != snapshot) {
+            engine = RoutingEngine.fromSystemProperty(snapshot);
+            engineGraph = snapshot;
+        }
+        return engine;
+    }
+
+    /*
+     * Appends the "fewer hops, later arrival" alternatives to the summary, e.g.
+     * "Arrival: Tuesday 14:55  (Hops: 3)  |  2 hops: Tuesday 15:10  |  1 hop: Tuesday 22:00"
+     */
+    private void displayFewerHopOptions(List<FlightGraph.Result> options) {
+        StringBuilder sb = new StringBuilder(summaryLabel.getText());
+        for (int i = options.size() - 2; i >= 0; i--) {
+            FlightGraph.Result alt = options.get(i);
+            int hops = alt.flights.size();
+            String[] arr = Utility.computeMinutesToDayAndTime(alt.arrivalTime);
+            sb.append("  |  ").append(hops).append(hops == 1 ? " hop: " : " hops: ")
+                    .append(arr[0]).append(" ").append(arr[1]);
+        }
+        summaryLabel.setText(sb.toString());
+    }
+
     @FXML
     private void onResetClicked() {
         sourceCombo.getSelectionModel().clearSelection();
         destCombo.getSelectionModel().clearSelection();
         dayCombo.getSelectionModel().clearSelection();
         layoverSpinner.getValueFactory().setValue(60);
-        resultsTable.getItems().clear();
+        clearTable();
         summaryLabel.setText("Ready");
     }
 }
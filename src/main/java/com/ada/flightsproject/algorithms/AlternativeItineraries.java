@@ -0,0 +1,258 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.SearchWorkspace;
+import com.ada.flightsproject.utility.Utility;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The K earliest-arriving itineraries from A to B, each through a different sequence of airports
+ * (so not the same route again on a later flight). Yen's algorithm over FlightGraph's search:
+ *
+ *   1. the best itinerary is the normal earliest-arrival answer
+ *   2. for an accepted itinerary P, and every airport X on it (the "spur"):
+ *        keep P up to X as it is (the root, with its times),
+ *        ban the root's other airports (no loops) and, at X itself, the next airport of every
+ *        accepted itinerary with the same root,
+ *        search from X at the time P lands there -> root + that = a candidate
+ *   3. the earliest candidate is the next itinerary; repeat from 2 until we have K
+ *
+ *   KUL -> SIN -> NRT            accepted #1
+ *   spur at KUL, SIN banned:     KUL -> HKG -> NRT              candidate
+ *   spur at SIN, NRT banned:     KUL -> SIN -> TPE -> NRT       candidate
+ *
+ * It holds because flights keep their order (FIFO, see DepartureIndex): landing earlier at X never
+ * makes the rest of the trip later, so the root is best continued by the earliest path from X.
+ *
+ * Reused between iterations:
+ * - spurs only start at the airport where P branched off its parent, or after it; the roots
+ *   before that were already searched when the parent was accepted (Lawler's refinement).
+ * - a spur search stops at the arrival of the last candidate that can still make the top K.
+ *   Anything landing later than that could never be returned.
+ * - all searches run in the thread's SearchWorkspace, like FlightGraph's own.
+ *
+ * Weekly timetable only (no dates); times are week-minutes as in FlightGraph.earliestArrival.
+ */
+public class AlternativeItineraries {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final DepartureIndex index;
+
+    /** Searches a snapshot of the graph as it is now. */
+    public AlternativeItineraries(FlightGraph graph) {
+        this.index = graph.snapshot().departureIndex();
+    }
+
+    /*
+     * One itinerary, as airport ids plus the times of every leg.
+     * deviation = position of the airport where it branched off the itinerary it was found from.
+     */
+    private static final class Itinerary {
+        final int[] airports;   // source first, target last
+        final int[] depart;     // per leg i (airports[i] -> airports[i + 1]): departure
+        final int[] arrive;     // per airport: arrival there, arrive[0] = start time
+        final int deviation;
+
+        Itinerary(int[] airports, int[] depart, int[] arrive, int deviation) {
+            this.airports = airports;
+            this.depart = depart;
+            this.arrive = arrive;
+            this.deviation = deviation;
+        }
+
+        int arrival() {
+            return arrive[arrive.length - 1];
+        }
+
+        /* true if this itinerary starts with the same airports as other, up to and including position i */
+        boolean sameRoot(Itinerary other, int i) {
+            if (airports.length <= i + 1) return false;
+            for (int j = 0; j <= i; j++) {
+                if (airports[j] != other.airports[j]) return false;
+            }
+            return true;
+        }
+
+        List<Integer> key() {
+            return Arrays.stream(airports).boxed().toList();
+        }
+    }
+
+    // earlier arrival first, then fewer flights
+    private static final Comparator<Itinerary> BY_ARRIVAL =
+            Comparator.comparingInt(Itinerary::arrival).thenComparingInt(p -> p.airports.length);
+
+    /**
+     * Up to k itineraries from source to target, earliest arrival first, no two through the same
+     * airports. The first one is exactly what FlightGraph.earliestArrival returns.
+     *
+     * @param budget time allowed for the whole call; once it runs out the itineraries found so far
+     *               are returned (the best one is always searched for, however long it takes)
+     * @return fewer than k results if the budget ran out or there are no more distinct itineraries
+     *         within the 2-week window; empty if target cannot be reached at all
+     */
+    public List<FlightGraph.Result> kBest(String source, String target, int startTime, int minLayover,
+                                          int k, Duration budget) {
+        CompactGraph g = index.graph();
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (k <= 0) return List.of();
+        if (source.equals(target)) {
+            return List.of(new FlightGraph.Result(List.of(source), Collections.emptyList(), startTime));
+        }
+        if (src < 0 || dst < 0) return List.of();
+
+        final long deadline = System.nanoTime() + budget.toNanos();
+        final int maxTime = startTime + 2 * Utility.MINUTES_IN_WEEK; // same cap as FlightGraph
+
+        SearchWorkspace ws = SearchWorkspace.forCurrentThread();
+        boolean[] blocked = new boolean[g.airportCount()]; // root airports of the current spur
+        int[] banned = new int[g.airportCount()];          // next airports not allowed at the spur, each once
+
+        List<Itinerary> accepted = new ArrayList<>();
+        List<Itinerary> candidates = new ArrayList<>();  // sorted BY_ARRIVAL, at most k - accepted
+        Set<List<Integer>> seen = new HashSet<>();
+
+        if (!search(ws, src, startTime, dst, minLayover, maxTime, blocked, banned, 0)) return List.of();
+        Itinerary best = spurItinerary(ws, null, 0, src, startTime, dst);
+        candidates.add(best);
+        seen.add(best.key());
+
+        search:
+        while (!candidates.isEmpty() && accepted.size() < k) {
+            Itinerary p = candidates.remove(0);
+            accepted.add(p);
+            if (accepted.size() == k) break;
+
+            for (int i = p.deviation; i < p.airports.length - 1; i++) {
+                if (System.nanoTime() > deadline) break search;
+
+                for (int j = 0; j < i; j++) blocked[p.airports[j]] = true;
+                int bannedCount = 0;
+                for (Itinerary a : accepted) {
+                    // several accepted itineraries can go on to the same airport: ban it once
+                    if (a.sameRoot(p, i) && !contains(banned, bannedCount, a.airports[i + 1])) {
+                        banned[bannedCount++] = a.airports[i + 1];
+                    }
+                }
+
+                // only worth finding if it lands no later than the last candidate still in the running
+                int needed = k - accepted.size();
+                int latest = candidates.size() >= needed ? candidates.get(needed - 1).arrival() : maxTime;
+
+                if (search(ws, p.airports[i], p.arrive[i], dst, minLayover, latest, blocked, banned, bannedCount)) {
+                    Itinerary c = spurItinerary(ws, p, i, p.airports[i], p.arrive[i], dst);
+                    if (seen.add(c.key())) {
+                        int at = Collections.binarySearch(candidates, c, BY_ARRIVAL);
+                        candidates.add(at < 0 ? -at - 1 : at, c);
+                        if (candidates.size() > needed) candidates.remove(candidates.size() - 1);
+                    }
+                }
+
+                for (int j = 0; j < i; j++) blocked[p.airports[j]] = false;
+            }
+        }
+
+        List<FlightGraph.Result> results = new ArrayList<>(accepted.size());
+        for (Itinerary p : accepted) {
+            results.add(toResult(g, p));
+        }
+        return results;
+    }
+
+    /*
+     * FlightGraph's earliest-arrival Dijkstra from `from` at time `start`, minus the blocked
+     * airports and, on the very first flight, the banned next airports.
+     * latestArrival caps it like the 2-week window does; true if dst was reached.
+     */
+    private boolean search(SearchWorkspace ws, int from, int start, int dst, int minLayover, int latestArrival,
+                           boolean[] blocked, int[] banned, int bannedCount) {
+        DepartureIndex idx = index;
+        ws.reset(idx.graph().airportCount());
+        ws.start(from, start);
+        ws.push(from, start);
+
+        int pops = 0;
+        while (!ws.isEmpty()) {
+            if ((++pops & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            long cur = ws.pop();
+            int u = SearchWorkspace.airportOf(cur);
+            int time = SearchWorkspace.timeOf(cur);
+            if (time > ws.best(u)) continue; // stale
+            if (u == dst) return true;
+
+            int earliestAllowed = time + minLayover;
+            for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                int v = idx.groupTo(grp);
+                if (blocked[v] || (u == from && contains(banned, bannedCount, v))) continue;
+
+                long next = idx.nextConnection(grp, earliestAllowed, latestArrival);
+                if (next == DepartureIndex.NONE) continue;
+                int candidateArr = DepartureIndex.arriveOf(next);
+                if (candidateArr < ws.best(v)) {
+                    ws.improve(v, candidateArr, u, DepartureIndex.departOf(next));
+                    ws.push(v, candidateArr);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /*
+     * root (the first i + 1 airports of parent, null for the very first itinerary) followed by
+     * the path the last search found from spur to dst.
+     */
+    private static Itinerary spurItinerary(SearchWorkspace ws, Itinerary parent, int i, int spur, int spurTime,
+                                           int dst) {
+        // spur part, walked back from dst
+        int legs = 0;
+        for (int cur = dst; cur != spur; cur = ws.prevAirport(cur)) legs++;
+        int rootLegs = parent == null ? 0 : i;
+
+        int[] airports = new int[rootLegs + legs + 1];
+        int[] depart = new int[rootLegs + legs];
+        int[] arrive = new int[rootLegs + legs + 1];
+        if (parent != null) {
+            System.arraycopy(parent.airports, 0, airports, 0, i + 1);
+            System.arraycopy(parent.depart, 0, depart, 0, i);
+            System.arraycopy(parent.arrive, 0, arrive, 0, i + 1);
+        }
+        airports[rootLegs] = spur;
+        arrive[rootLegs] = spurTime;
+        int pos = rootLegs + legs;
+        for (int cur = dst; cur != spur; cur = ws.prevAirport(cur), pos--) {
+            airports[pos] = cur;
+            arrive[pos] = ws.best(cur);
+            depart[pos - 1] = ws.prevDepart(cur);
+        }
+        return new Itinerary(airports, depart, arrive, rootLegs);
+    }
+
+    private static FlightGraph.Result toResult(CompactGraph g, Itinerary p) {
+        List<String> airports = new ArrayList<>(p.airports.length);
+        List<FlightGraph.Flight> flights = new ArrayList<>(p.depart.length);
+        for (int i = 0; i < p.airports.length; i++) {
+            airports.add(g.codeOf(p.airports[i]));
+            if (i > 0) {
+                flights.add(new FlightGraph.Flight(g.codeOf(p.airports[i - 1]), g.codeOf(p.airports[i]),
+                        p.depart[i - 1], p.arrive[i]));
+            }
+        }
+        return new FlightGraph.Result(airports, flights, p.arrival());
+    }
+}
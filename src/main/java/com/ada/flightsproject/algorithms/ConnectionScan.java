@@ -0,0 +1,111 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Connection Scan Algorithm (CSA) for earliest-arrival queries.
+ *
+ * Instead of a priority queue, we walk ONE array of connections sorted by departure time
+ * (see ConnectionTable) from the start time forward. A connection u -> v is usable if we are
+ * at u early enough to make the layover; if so it may improve the arrival at v. Because the
+ * array is sorted by departure, by the time we look at a connection every arrival that could
+ * feed it is already final. One linear, cache-friendly pass, no heap.
+ *
+ * Same semantics as FlightGraph.earliestArrival: weekly repeat, minLayover before every boarding
+ * (including the first flight), and a 2-week cap. The flights are unrolled over 3 weeks, which
+ * covers startTime (normalised into week 0) + 2 weeks.
+ */
+public class ConnectionScan implements RoutingEngine {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final ConnectionTable table;
+
+    public ConnectionScan(FlightGraph graph) {
+        this.table = new ConnectionTable(graph.compact(), 3);
+    }
+
+    @Override
+    public FlightGraph.Result earliestArrival(String source, String target, int startTime, int minLayover) {
+        CompactGraph g = table.graph;
+
+        if (source.equals(target)) {
+            return new FlightGraph.Result(List.of(source), Collections.emptyList(), startTime);
+        }
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (src < 0 || dst < 0) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+        return scan(src, dst, startTime, minLayover).resultTo(target);
+    }
+
+    @Override
+    public ArrivalTree arrivalTree(String source, int startTime, int minLayover) {
+        CompactGraph g = table.graph;
+        int src = g.idOf(source);
+        if (src < 0) {
+            int[] none = new int[g.airportCount()];
+            Arrays.fill(none, INF);
+            return new ArrivalTree(g, source, startTime, none, new int[none.length], new int[none.length]);
+        }
+        return scan(src, -1, startTime, minLayover);
+    }
+
+    /*
+     * The scan itself. dst = -1 scans the whole window (one-to-all); otherwise we stop as soon as
+     * nothing departing later can beat the arrival at dst.
+     */
+    private ArrivalTree scan(int src, int dst, int startTime, int minLayover) {
+        CompactGraph g = table.graph;
+
+        // Work relative to the Monday 00:00 of startTime's week, so the start lands in week 0
+        int weekBase = startTime - startTime % WEEK;
+        int start = startTime - weekBase;
+        int maxTime = start + 2 * WEEK; // cap search to 2 weekly cycles
+
+        int n = g.airportCount();
+        int[] best = new int[n];         // earliest arrival per airport
+        int[] prevAirport = new int[n];  // where the connection into it came from
+        int[] prevDepart = new int[n];   // and when it left
+        Arrays.fill(best, INF);
+        best[src] = start;
+
+        int[] from = table.from;
+        int[] to = table.to;
+        int[] dep = table.dep;
+        int[] arr = table.arr;
+
+        for (int c = table.firstDepartingAtOrAfter(start + minLayover), size = table.size(); c < size; c++) {
+            int d = dep[c];
+            // Past the window, or nothing departing from now on can beat what we have at target
+            if (d > maxTime || (dst >= 0 && d >= best[dst])) break;
+
+            int u = from[c];
+            // Can we be at u, with layover, in time for this departure?
+            if (best[u] == INF || best[u] > d - minLayover) continue;
+
+            int a = arr[c];
+            int v = to[c];
+            if (a <= maxTime && a < best[v]) {
+                best[v] = a;
+                prevAirport[v] = u;
+                prevDepart[v] = d + weekBase;
+            }
+        }
+
+        // Back to absolute week-minutes
+        for (int v = 0; v < n; v++) {
+            if (best[v] != INF) best[v] += weekBase;
+        }
+        return new ArrivalTree(g, g.codeOf(src), startTime, best, prevAirport, prevDepart);
+    }
+}
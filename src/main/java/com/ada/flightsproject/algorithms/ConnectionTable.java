@@ -0,0 +1,91 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.Arrays;
+
+/**
+ * All flights of a CompactGraph unrolled over a number of consecutive weeks and stored as
+ * one array of "connections" sorted by departure time:
+ *
+ *   c:    0          1          2          ...   (weeks * edgeCount entries)
+ *   from  KUL        CGK        KUL
+ *   to    SIN        DPS        NRT
+ *   dep   Mon 06:00  Mon 06:00  Mon 07:15
+ *   arr   Mon 07:05  Mon 08:50  Mon 14:30
+ *
+ * Times are minutes from the Monday 00:00 of week 0. Week k's copy is week 0 shifted by k * WEEK,
+ * so sorting one week and appending the shifted copies keeps the whole array sorted.
+ */
+final class ConnectionTable {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+
+    final CompactGraph graph;
+    final int weeks;
+
+    final int[] from;
+    final int[] to;
+    final int[] dep;
+    final int[] arr;
+
+    ConnectionTable(CompactGraph g, int weeks) {
+        this.graph = g;
+        this.weeks = weeks;
+
+        int m = g.edgeCount();
+
+        // Sort one week of edges by departure. Packed (dep << 32 | edge) so it is a primitive sort.
+        long[] order = new long[m];
+        int k = 0;
+        for (int u = 0; u < g.airportCount(); u++) {
+            for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                order[k++] = ((long) g.edgeDepart(e) << 32) | e;
+            }
+        }
+        Arrays.sort(order);
+
+        // We need the origin airport per edge, which CompactGraph only has as ranges
+        int[] edgeFrom = new int[g.edgeIndexLimit()];
+        for (int u = 0; u < g.airportCount(); u++) {
+            for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                edgeFrom[e] = u;
+            }
+        }
+
+        int total = m * weeks;
+        this.from = new int[total];
+        this.to = new int[total];
+        this.dep = new int[total];
+        this.arr = new int[total];
+
+        for (int w = 0; w < weeks; w++) {
+            int shift = w * WEEK;
+            for (int i = 0; i < m; i++) {
+                int e = (int) order[i];
+                int c = w * m + i;
+                from[c] = edgeFrom[e];
+                to[c] = g.edgeTo(e);
+                dep[c] = g.edgeDepart(e) + shift;
+                arr[c] = dep[c] + g.edgeDuration(e);
+            }
+        }
+    }
+
+    int size() {
+        return dep.length;
+    }
+
+    /** Index of the first connection departing at or after time (size() if none). */
+    int firstDepartingAtOrAfter(int time) {
+        int lo = 0;
+        int hi = dep.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dep[mid] < time) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
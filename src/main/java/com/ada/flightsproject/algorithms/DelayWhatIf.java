@@ -0,0 +1,307 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.SearchWorkspace;
+import com.ada.flightsproject.dataStructures.TimetableDelta;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.*;
+
+/**
+ * "What if these flights are late / cancelled?" on top of a base timetable, without rebuilding it
+ * and without searching everything again.
+ *
+ * A scenario is the base graph with a TimetableDelta applied (delay, remove, retime; see
+ * FlightGraph.withChanges): only the airports with a changed departure are re-packed, the rest
+ * of the arrays is shared with the base, which stays as it is.
+ *
+ * Arrival trees computed on the base are then repaired instead of recomputed (dynamic
+ * shortest-path repair):
+ *
+ *   1. airports whose tree flight changed, and everything below them in the tree, lose their
+ *      arrival (they may now land later or not at all)
+ *
+ *        KUL ──> SIN ──> NRT           SIN -> NRT delayed: NRT and KIX are re-searched,
+ *         │       └────> SYD           SIN, SYD, HKG keep their arrival
+ *         └────> HKG    NRT ──> KIX
+ *
+ *   2. they get a first arrival from the airports that still have theirs, one lookup per route
+ *      into them; flights that moved (a delay can make a flight catchable that was missed
+ *      before) are tried from where they leave
+ *   3. a Dijkstra from there, on the scenario, continues only where arrivals actually change
+ *
+ * The arrivals are exactly those of the scenario's own arrivalTree (on ties the flights used may
+ * differ); the work is proportional to the part of the tree that changed.
+ *
+ * Weekly timetable only, like the trees it repairs.
+ */
+public final class DelayWhatIf {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final FlightGraph base;
+    private final int[] predBegin;  // per airport (+1): first entry in pred
+    private final int[] pred;       // airports with a route into it (reverse of the DepartureIndex groups)
+
+    /** Works on a snapshot of base; the reverse routes are computed here, once for all scenarios. */
+    public DelayWhatIf(FlightGraph base) {
+        this.base = base.snapshot();
+        DepartureIndex idx = this.base.departureIndex();
+        int n = idx.graph().airportCount();
+        predBegin = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int grp = idx.groupBegin(u); grp < idx.groupEnd(u); grp++) {
+                predBegin[idx.groupTo(grp) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) predBegin[v + 1] += predBegin[v];
+        pred = new int[predBegin[n]];
+        int[] fill = Arrays.copyOf(predBegin, n);
+        for (int u = 0; u < n; u++) {
+            for (int grp = idx.groupBegin(u); grp < idx.groupEnd(u); grp++) {
+                pred[fill[idx.groupTo(grp)]++] = u;
+            }
+        }
+    }
+
+    public FlightGraph base() {
+        return base;
+    }
+
+    /**
+     * The base timetable with the given delays / cancellations applied.
+     *
+     * @throws IllegalArgumentException if a change names a flight that does not exist
+     */
+    public Scenario scenario(TimetableDelta disruptions) {
+        return new Scenario(disruptions);
+    }
+
+    /**
+     * One set of disruptions on top of the base.
+     */
+    public final class Scenario {
+
+        private final FlightGraph graph;
+        private final Set<Long> goneFlights = new HashSet<>(); // keys of base flights that changed
+        private final long[] movedFlights;                     // (from, to) of every flight with new times
+
+        private Scenario(TimetableDelta disruptions) {
+            this.graph = base.withChanges(disruptions);
+            CompactGraph g = graph.compact();
+            List<Long> moved = new ArrayList<>();
+            for (TimetableDelta.Change c : disruptions.changes()) {
+                int from = g.idOf(c.from);
+                int to = g.idOf(c.to);
+                if (c.kind != TimetableDelta.Kind.ADD) goneFlights.add(key(from, to, c.depart % WEEK));
+                if (c.kind != TimetableDelta.Kind.REMOVE) moved.add(((long) from << 32) | to);
+            }
+            this.movedFlights = moved.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        /** The disrupted timetable, a read-only snapshot sharing most of its arrays with the base. */
+        public FlightGraph graph() {
+            return graph;
+        }
+
+        /**
+         * True if the itinerary (computed on the base) takes a flight that was delayed, retimed or
+         * cancelled, i.e. it cannot be flown as planned any more.
+         */
+        public boolean breaks(FlightGraph.Result itinerary) {
+            CompactGraph g = graph.compact();
+            for (FlightGraph.Flight f : itinerary.flights) {
+                if (goneFlights.contains(key(g.idOf(f.from), g.idOf(f.to), f.depart % WEEK))) return true;
+            }
+            return false;
+        }
+
+        /**
+         * The tree arrivalTree(tree.source(), tree.startTime(), minLayover) would give on this
+         * scenario, repaired from a tree computed on the base.
+         *
+         * @param tree       one-to-all result on the base graph (see FlightGraph.arrivalTree)
+         * @param minLayover the layover tree was computed with
+         * @throws IllegalArgumentException if tree was not computed on the base graph
+         */
+        public Repair repair(ArrivalTree tree, int minLayover) {
+            CompactGraph baseGraph = base.compact();
+            if (tree.graph() != baseGraph) {
+                throw new IllegalArgumentException("Tree was not computed on the base timetable");
+            }
+            DepartureIndex idx = graph.departureIndex();
+            int n = idx.graph().airportCount(); // may have grown (flights to new airports)
+            int baseN = baseGraph.airportCount();
+            int src = idx.graph().idOf(tree.source()); // a new airport if only the scenario has flights from it
+            int maxTime = tree.startTime() + 2 * WEEK; // same cap as the search
+
+            int[] arrival = new int[n];
+            int[] prevAirport = new int[n];
+            int[] prevDepart = new int[n];
+            Arrays.fill(arrival, INF);
+            for (int v = 0; v < baseN; v++) {
+                arrival[v] = tree.arrivalAt(v);
+                prevAirport[v] = tree.prevAirport(v);
+                prevDepart[v] = tree.prevDepart(v);
+            }
+            if (src < 0) {
+                return new Repair(new ArrivalTree(idx.graph(), tree.source(), tree.startTime(),
+                        arrival, prevAirport, prevDepart), List.of(), 0);
+            }
+            arrival[src] = tree.startTime();
+
+            // 1. airports that came in on a changed flight, and their subtrees
+            boolean[] lost = lostSubtrees(baseN, src, arrival, prevAirport, prevDepart);
+            for (int v = 0; v < baseN; v++) {
+                if (lost[v]) arrival[v] = INF;
+            }
+
+            // 2. first arrivals for them from the airports that kept theirs, plus the moved flights
+            Relaxer r = new Relaxer(idx, arrival, prevAirport, prevDepart, minLayover, maxTime);
+            for (int v = 0; v < baseN; v++) {
+                if (!lost[v]) continue;
+                for (int p = predBegin[v]; p < predBegin[v + 1]; p++) {
+                    int u = pred[p];
+                    if (!lost[u] && arrival[u] != INF) r.relax(u, idx.groupOf(u, v));
+                }
+            }
+            for (long moved : movedFlights) {
+                int u = (int) (moved >>> 32);
+                int v = (int) moved;
+                if (u < baseN && lost[u]) continue; // relaxed anyway once it is settled again
+                if (arrival[u] != INF) r.relax(u, idx.groupOf(u, v));
+            }
+
+            // 3. Dijkstra over whatever changed
+            int settled = r.run();
+
+            List<String> changed = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                int before = v < baseN ? tree.arrivalAt(v) : INF;
+                if (v != src && arrival[v] != before) changed.add(idx.graph().codeOf(v));
+            }
+            return new Repair(new ArrivalTree(idx.graph(), tree.source(), tree.startTime(),
+                    arrival, prevAirport, prevDepart), changed, settled);
+        }
+
+        /*
+         * Marks every reached airport whose tree flight (prevAirport -> v leaving at prevDepart)
+         * is one of the changed flights, and everything below it in the tree.
+         */
+        private boolean[] lostSubtrees(int n, int src, int[] arrival, int[] prevAirport, int[] prevDepart) {
+            // children of every airport in the tree, as CSR
+            int[] childBegin = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                if (v != src && arrival[v] != INF) childBegin[prevAirport[v] + 1]++;
+            }
+            for (int v = 0; v < n; v++) childBegin[v + 1] += childBegin[v];
+            int[] children = new int[childBegin[n]];
+            int[] fill = Arrays.copyOf(childBegin, n);
+            for (int v = 0; v < n; v++) {
+                if (v != src && arrival[v] != INF) children[fill[prevAirport[v]]++] = v;
+            }
+
+            boolean[] lost = new boolean[n];
+            int[] stack = new int[n];
+            for (int v = 0; v < n; v++) {
+                if (v == src || arrival[v] == INF || lost[v]) continue;
+                if (!goneFlights.contains(key(prevAirport[v], v, prevDepart[v] % WEEK))) continue;
+                int top = 0;
+                stack[top++] = v;
+                lost[v] = true;
+                while (top > 0) {
+                    int u = stack[--top];
+                    for (int c = childBegin[u]; c < childBegin[u + 1]; c++) {
+                        if (!lost[children[c]]) {
+                            lost[children[c]] = true;
+                            stack[top++] = children[c];
+                        }
+                    }
+                }
+            }
+            return lost;
+        }
+    }
+
+    /**
+     * A repaired tree and what changed compared to the base.
+     */
+    public static final class Repair {
+        /** Same arrivals as the scenario's arrivalTree for the same source, start and layover. */
+        public final ArrivalTree tree;
+        /** Airports (codes) whose earliest arrival is different from the base, later, earlier or lost. */
+        public final List<String> changed;
+        /** Airports the repair had to settle again (the work it did, vs. the whole tree for a new search). */
+        public final int resettled;
+
+        Repair(ArrivalTree tree, List<String> changed, int resettled) {
+            this.tree = tree;
+            this.changed = Collections.unmodifiableList(changed);
+            this.resettled = resettled;
+        }
+    }
+
+    /*
+     * The Dijkstra of FlightGraph.search, on arrays that already hold the arrivals still valid;
+     * only what is pushed here is looked at again.
+     */
+    private static final class Relaxer {
+        final DepartureIndex idx;
+        final int[] arrival;
+        final int[] prevAirport;
+        final int[] prevDepart;
+        final int minLayover;
+        final int maxTime;
+        final SearchWorkspace ws = SearchWorkspace.forCurrentThread(); // only its heap is used
+
+        Relaxer(DepartureIndex idx, int[] arrival, int[] prevAirport, int[] prevDepart, int minLayover, int maxTime) {
+            this.idx = idx;
+            this.arrival = arrival;
+            this.prevAirport = prevAirport;
+            this.prevDepart = prevDepart;
+            this.minLayover = minLayover;
+            this.maxTime = maxTime;
+            ws.reset(idx.graph().airportCount());
+        }
+
+        /* the route u -> groupTo(grp) from u's current arrival; grp < 0 (no such route any more) is ignored */
+        void relax(int u, int grp) {
+            if (grp < 0) return;
+            long next = idx.nextConnection(grp, arrival[u] + minLayover, maxTime);
+            if (next == DepartureIndex.NONE) return;
+            int candidateArr = DepartureIndex.arriveOf(next);
+            int v = idx.groupTo(grp);
+            if (candidateArr < arrival[v]) {
+                arrival[v] = candidateArr;
+                prevAirport[v] = u;
+                prevDepart[v] = DepartureIndex.departOf(next);
+                ws.push(v, candidateArr);
+            }
+        }
+
+        /* @return number of airports settled */
+        int run() {
+            int settled = 0;
+            while (!ws.isEmpty()) {
+                long cur = ws.pop();
+                int u = SearchWorkspace.airportOf(cur);
+                int time = SearchWorkspace.timeOf(cur);
+                if (time > arrival[u] || time > maxTime) continue; // stale
+                settled++;
+                for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                    relax(u, grp);
+                }
+            }
+            return settled;
+        }
+    }
+
+    // (from, to, departure minute of the week) of a flight; 14 bits are enough for the minute
+    private static long key(int from, int to, int depart) {
+        return ((long) from << 36) | ((long) to << 14) | depart;
+    }
+}
@@ -0,0 +1,309 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.SearchWorkspace;
+import com.ada.flightsproject.metrics.SearchMetrics;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A* version of FlightGraph's earliest-arrival search for one source and one target.
+ *
+ * The plain search settles airports in order of arrival time, in every direction. Here the queue
+ * is ordered by "arrival + lower bound of the time still needed to reach the target", so
+ * airports that lead away from the target are settled late or never.
+ *
+ * The lower bound comes from landmarks (ALT). On a static copy of the network where every route
+ * u -> v costs its shortest flight duration, we precompute the distance from and to a handful
+ * of landmark airports L. By the triangle inequality, for any airport v and target t:
+ *
+ *   static(v, t) >= static(L, t) - static(L, v)
+ *   static(v, t) >= static(v, L) - static(t, L)
+ *
+ * The same trick with every route costing 1 gives a lower bound on the number of flights still
+ * needed. Each of those needs minLayover before boarding, and the first one cannot leave before
+ * the next departure of any flight from v (DepartureIndex.nextDeparture). So, landing at v at
+ * time a:
+ *
+ *   firstBoarding = next departure from v at or after a + minLayover
+ *   bound(v, a)   = firstBoarding + durationBound(v, t) + minLayover * (max(1, flightsBound(v, t)) - 1)
+ *
+ * is the earliest arrival at t we could possibly still get. The search pops airports in order of
+ * this bound. It never decreases along a flight, so the first time the target is popped its
+ * arrival is the earliest one. The answer is exactly the one FlightGraph.earliestArrival gives; only
+ * fewer airports are settled (see SearchMetrics).
+ *
+ * arrivalTree has no target to aim for and just runs FlightGraph's search.
+ */
+public class GoalDirectedSearch implements RoutingEngine {
+
+    /** Landmarks used when none is given. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final FlightGraph graph;
+    private final DepartureIndex index;
+
+    private final int landmarks;    // k
+    private final int[] fromLandmark; // [v * k + l] = static distance landmark l -> v (INF if unreachable)
+    private final int[] toLandmark;   // [v * k + l] = static distance v -> landmark l
+    private final int[] hopsFromLandmark; // same, counting flights instead of minutes
+    private final int[] hopsToLandmark;
+
+    /** Searches a snapshot of the graph as it is now; the landmarks are computed here, once. */
+    public GoalDirectedSearch(FlightGraph graph) {
+        this(graph, DEFAULT_LANDMARKS);
+    }
+
+    public GoalDirectedSearch(FlightGraph graph, int landmarkCount) {
+        this.graph = graph.snapshot();
+        this.index = this.graph.departureIndex();
+        CompactGraph g = index.graph();
+        int n = g.airportCount();
+
+        // Static graph: one arc per route, weight = shortest flight on it. Forward and reverse CSR.
+        // Arcs are numbered in the order we walk the airports' groups (group indices themselves can
+        // have gaps after DepartureIndex.withChanges, so they are not used as array indices).
+        int[] minDuration = minDurationPerArc(g, index);
+        int arcs = index.groupCount();
+        int[] fwdBegin = new int[n + 1];
+        int[] fwdTo = new int[arcs];
+        int[] fwdW = new int[arcs];
+        int[] revBegin = new int[n + 1];
+        int[] revTo = new int[arcs];
+        int[] revW = new int[arcs];
+        for (int u = 0; u < n; u++) {
+            for (int grp = index.groupBegin(u); grp < index.groupEnd(u); grp++) {
+                revBegin[index.groupTo(grp) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) revBegin[v + 1] += revBegin[v];
+        int[] revFill = Arrays.copyOf(revBegin, n);
+        int a = 0;
+        for (int u = 0; u < n; u++) {
+            fwdBegin[u] = a;
+            for (int grp = index.groupBegin(u); grp < index.groupEnd(u); grp++) {
+                int v = index.groupTo(grp);
+                fwdTo[a] = v;
+                fwdW[a] = minDuration[a];
+                int r = revFill[v]++;
+                revTo[r] = u;
+                revW[r] = minDuration[a];
+                a++;
+            }
+        }
+        fwdBegin[n] = a;
+
+        // Farthest-first landmarks: each new one is the airport farthest from those picked so far
+        int k = Math.max(0, Math.min(landmarkCount, n));
+        this.landmarks = k;
+        this.fromLandmark = new int[n * k];
+        this.toLandmark = new int[n * k];
+        this.hopsFromLandmark = new int[n * k];
+        this.hopsToLandmark = new int[n * k];
+        int[] one = new int[arcs];
+        Arrays.fill(one, 1);
+        int[] closest = new int[n]; // distance to the nearest landmark picked so far
+        Arrays.fill(closest, INF);
+        SearchWorkspace ws = new SearchWorkspace();
+        int next = 0;
+        for (int l = 0; l < k; l++) {
+            int[] from = staticDistances(ws, n, next, fwdBegin, fwdTo, fwdW);
+            int[] to = staticDistances(ws, n, next, revBegin, revTo, revW);
+            int[] hopsFrom = staticDistances(ws, n, next, fwdBegin, fwdTo, one);
+            int[] hopsTo = staticDistances(ws, n, next, revBegin, revTo, one);
+            int farthest = -1;
+            for (int v = 0; v < n; v++) {
+                fromLandmark[v * k + l] = from[v];
+                toLandmark[v * k + l] = to[v];
+                hopsFromLandmark[v * k + l] = hopsFrom[v];
+                hopsToLandmark[v * k + l] = hopsTo[v];
+                if (from[v] != INF) closest[v] = Math.min(closest[v], from[v]);
+                if (farthest < 0 || (closest[v] != INF && closest[v] > closest[farthest])) farthest = v;
+            }
+            closest[next] = 0;
+            next = farthest;
+        }
+    }
+
+    @Override
+    public FlightGraph.Result earliestArrival(String source, String target, int startTime, int minLayover) {
+        CompactGraph g = index.graph();
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (source.equals(target)) {
+            return new FlightGraph.Result(List.of(source), Collections.emptyList(), startTime);
+        }
+        if (src < 0 || dst < 0) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+
+        SearchWorkspace ws = SearchWorkspace.forCurrentThread();
+        search(ws, src, dst, startTime, minLayover);
+        if (ws.best(dst) == INF) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+        return ws.resultTo(g, src, dst);
+    }
+
+    @Override
+    public ArrivalTree arrivalTree(String source, int startTime, int minLayover) {
+        return graph.arrivalTree(source, startTime, minLayover);
+    }
+
+    /**
+     * Lower bound on the arrival at target t when we land at airport v (v != t) at time arrival,
+     * or INF if nothing leaves v at all.
+     */
+    int bound(int v, int t, int arrival, int minLayover) {
+        final int WEEK = Utility.MINUTES_IN_WEEK;
+
+        // first possible boarding at v, as an absolute minute
+        int allowed = arrival + minLayover;
+        int next = index.nextDeparture(v, allowed);
+        if (next < 0) return INF;
+        int boarding = allowed - allowed % WEEK + next;
+        if (next < allowed % WEEK) boarding += WEEK; // wraps to next week
+
+        int minutes = 0;
+        int flights = 1;
+        int k = landmarks;
+        for (int l = 0; l < k; l++) {
+            int vk = v * k + l;
+            int tk = t * k + l;
+            minutes = Math.max(minutes, difference(fromLandmark[tk], fromLandmark[vk]));
+            minutes = Math.max(minutes, difference(toLandmark[vk], toLandmark[tk]));
+            flights = Math.max(flights, difference(hopsFromLandmark[tk], hopsFromLandmark[vk]));
+            flights = Math.max(flights, difference(hopsToLandmark[vk], hopsToLandmark[tk]));
+        }
+        return boarding + minutes + minLayover * (flights - 1);
+    }
+
+    /* a - b, or 0 when either side is unreachable (no information) */
+    private static int difference(int a, int b) {
+        return a == INF || b == INF ? 0 : a - b;
+    }
+
+    /* bound() with the target itself being exact */
+    private int key(int v, int t, int arrival, int minLayover) {
+        return v == t ? arrival : bound(v, t, arrival, minLayover);
+    }
+
+    /*
+     * FlightGraph.search with the queue keyed on bound() instead of the arrival time.
+     * ws.best still holds real arrival times; only the heap entries carry the bound.
+     */
+    private void search(SearchWorkspace ws, int src, int dst, int startTime, int minLayover) {
+        final int WEEK = Utility.MINUTES_IN_WEEK;
+        final int MAX_TIME = startTime + 2 * WEEK; // cap search to 2 weekly cycles
+        final long started = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+        DepartureIndex idx = index;
+
+        ws.reset(idx.graph().airportCount());
+        ws.start(src, startTime);
+        int startKey = key(src, dst, startTime, minLayover);
+        if (startKey <= MAX_TIME) ws.push(src, startKey);
+
+        int pops = 0;
+        while (!ws.isEmpty()) {
+            if ((++pops & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            long cur = ws.pop();
+            int u = SearchWorkspace.airportOf(cur);
+            int time = ws.best(u);
+
+            // Stale entry: u was reached earlier since this one was pushed
+            if (SearchWorkspace.timeOf(cur) > key(u, dst, time, minLayover)) {
+                if (SearchMetrics.ENABLED) ws.counters.stalePops++;
+                continue;
+            }
+            if (SearchMetrics.ENABLED) ws.counters.settled++;
+            if (u == dst) break;
+
+            int earliestAllowed = time + minLayover;
+            for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                long next = idx.nextConnection(grp, earliestAllowed, MAX_TIME);
+                if (SearchMetrics.ENABLED) ws.counters.edgesScanned++;
+                if (next == DepartureIndex.NONE) {
+                    if (SearchMetrics.ENABLED) ws.counters.windowPruned++;
+                    continue;
+                }
+
+                int candidateArr = DepartureIndex.arriveOf(next);
+                int v = idx.groupTo(grp);
+                if (candidateArr < ws.best(v)) {
+                    // Even at best the target is not reached by MAX_TIME via v: not worth queueing
+                    int k = key(v, dst, candidateArr, minLayover);
+                    if (k > MAX_TIME) continue;
+                    ws.improve(v, candidateArr, u, DepartureIndex.departOf(next));
+                    ws.push(v, k);
+                }
+            }
+        }
+
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.global().record(ws.counters, System.nanoTime() - started);
+        }
+    }
+
+    /*
+     * Shortest flight duration of every route (DepartureIndex group), per arc: airport by airport,
+     * group by group. Dominated flights were dropped from the index, but the shortest one always
+     * survives: anything that beats it has to be shorter.
+     */
+    private static int[] minDurationPerArc(CompactGraph g, DepartureIndex idx) {
+        int[] min = new int[idx.groupCount()];
+        int a = 0;
+        int[] shortestTo = new int[g.airportCount()];
+        Arrays.fill(shortestTo, INF);
+        for (int u = 0; u < g.airportCount(); u++) {
+            for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                int v = g.edgeTo(e);
+                shortestTo[v] = Math.min(shortestTo[v], g.edgeDuration(e));
+            }
+            for (int grp = idx.groupBegin(u); grp < idx.groupEnd(u); grp++) {
+                min[a++] = shortestTo[idx.groupTo(grp)];
+            }
+            for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                shortestTo[g.edgeTo(e)] = INF;
+            }
+        }
+        return min;
+    }
+
+    /*
+     * Plain Dijkstra on the static graph (CSR begin/to/w) from one airport.
+     */
+    private static int[] staticDistances(SearchWorkspace ws, int n, int from,
+                                         int[] begin, int[] to, int[] w) {
+        ws.reset(n);
+        ws.start(from, 0);
+        ws.push(from, 0);
+        while (!ws.isEmpty()) {
+            long cur = ws.pop();
+            int u = SearchWorkspace.airportOf(cur);
+            int d = SearchWorkspace.timeOf(cur);
+            if (d > ws.best(u)) continue;
+            for (int a = begin[u]; a < begin[u + 1]; a++) {
+                int v = to[a];
+                int nd = d + w[a];
+                if (nd < ws.best(v)) {
+                    ws.improve(v, nd, u, 0);
+                    ws.push(v, nd);
+                }
+            }
+        }
+        int[] dist = new int[n];
+        for (int v = 0; v < n; v++) dist[v] = ws.best(v);
+        return dist;
+    }
+}
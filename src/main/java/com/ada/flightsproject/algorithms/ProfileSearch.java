@@ -0,0 +1,229 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Profile (range) queries: "when should I leave on Monday to arrive earliest?"
+ *
+ * Instead of calling earliestArrival once per candidate start minute, we scan the connections
+ * ONCE, backwards in time (profile Connection Scan). For every airport we keep the list of
+ * (departure, arrival-at-target) pairs that are not dominated, i.e. no other option leaves
+ * later AND arrives earlier. At the source, that list is exactly the answer.
+ *
+ * Same rules as FlightGraph.earliestArrival: weekly repeat, minLayover before every boarding
+ * (including the first flight) and arrival at most 2 weeks after the start.
+ */
+public class ProfileSearch {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+
+    /*
+     * Window (max 1 week) + layover (max 1 day) + 2-week cap all fit in 5 unrolled weeks
+     * once the window start is normalised into week 0.
+     */
+    private static final int WEEKS = 5;
+    private static final int MAX_LAYOVER = Utility.MINUTES_IN_DAY;
+
+    /**
+     * One Pareto-optimal option: leave on the first flight at departure, land at arrival.
+     * Any start time up to latestStart() catches it.
+     */
+    public static class Journey {
+        public final int departure;               // departure of the first flight, week-minutes
+        public final int arrival;                 // arrival at target, week-minutes
+        public final FlightGraph.Result route;    // the flights themselves
+        final int minLayover;
+
+        Journey(int departure, int arrival, FlightGraph.Result route, int minLayover) {
+            this.departure = departure;
+            this.arrival = arrival;
+            this.route = route;
+            this.minLayover = minLayover;
+        }
+
+        /** Latest start time (in week-minutes) from which this journey can still be taken. */
+        public int latestStart() {
+            return departure - minLayover;
+        }
+    }
+
+    private final ConnectionTable table;
+
+    public ProfileSearch(FlightGraph graph) {
+        this.table = new ConnectionTable(graph.compact(), WEEKS);
+    }
+
+    /**
+     * All non-dominated journeys for start times in [windowStart, windowEnd].
+     *
+     * @param source      starting airport code
+     * @param target      target airport code
+     * @param windowStart earliest start time (week-minutes)
+     * @param windowEnd   latest start time (week-minutes), at most one week after windowStart
+     * @param minLayover  minutes of layover before each flight (0..1440)
+     * @return journeys sorted by departure; a later one always arrives later too.
+     *         The last one may depart after the window if waiting for it beats everything earlier.
+     */
+    public List<Journey> profile(String source, String target, int windowStart, int windowEnd, int minLayover) {
+        if (windowEnd < windowStart || windowEnd - windowStart > WEEK) {
+            throw new IllegalArgumentException("Departure window must be between 0 and 1 week long");
+        }
+        if (minLayover < 0 || minLayover > MAX_LAYOVER) {
+            throw new IllegalArgumentException("Layover must be between 0 and " + MAX_LAYOVER + " minutes");
+        }
+
+        CompactGraph g = table.graph;
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (src < 0 || dst < 0 || src == dst) {
+            return Collections.emptyList();
+        }
+
+        // Normalise into week 0 of the unrolled table
+        int weekBase = windowStart - windowStart % WEEK;
+        int from = windowStart - weekBase;
+        int to = windowEnd - weekBase;
+        int maxTime = to + 2 * WEEK; // nobody in the window may arrive later than this
+
+        Profiles profiles = new Profiles(g.airportCount());
+
+        int[] cFrom = table.from;
+        int[] cTo = table.to;
+        int[] cDep = table.dep;
+        int[] cArr = table.arr;
+
+        // Connections that could be part of a journey: departing no earlier than the first boarding
+        // at the source, and not after the cap. Scanned latest first.
+        int first = table.firstDepartingAtOrAfter(from + minLayover);
+        int last = table.firstDepartingAtOrAfter(maxTime + 1) - 1;
+
+        for (int c = last; c >= first; c--) {
+            int u = cFrom[c];
+            int v = cTo[c];
+            if (u == dst || cArr[c] > maxTime) continue;
+
+            int arrivalAtTarget;
+            int next;
+            if (v == dst) {
+                arrivalAtTarget = cArr[c];
+                next = -1;
+            } else {
+                // Best we can do after landing at v: first option at v leaving after our layover
+                next = profiles.best(v, cArr[c] + minLayover);
+                if (next < 0) continue;
+                arrivalAtTarget = profiles.entryArr[next];
+            }
+            profiles.offer(u, cDep[c], arrivalAtTarget, c, next);
+        }
+
+        // The source's profile is the answer. A journey is the best choice for every start time
+        // between the previous journey's latestStart and its own, so we keep all journeys that
+        // can be caught from inside the window, plus the first one after it (starting at windowEnd
+        // and waiting is still a start in the window).
+        List<Journey> journeys = new ArrayList<>();
+        int[] list = profiles.lists[src];
+        for (int k = profiles.sizes[src] - 1; k >= 0; k--) {
+            int e = list[k];
+            int dep = profiles.entryDep[e];
+            int arr = profiles.entryArr[e];
+            int start = dep - minLayover;
+            if (start < from) continue;
+            // Same departure listed twice: the later-added one (higher k) arrives earlier, keep only that
+            if (k + 1 < profiles.sizes[src] && profiles.entryDep[list[k + 1]] == dep) continue;
+            // 2-week cap, counted from the latest start inside the window that takes this journey
+            if (arr > Math.min(start, to) + 2 * WEEK) continue;
+
+            journeys.add(new Journey(dep + weekBase, arr + weekBase,
+                    toResult(profiles, e, weekBase), minLayover));
+            if (start >= to) break; // first journey past the window end
+        }
+        return journeys;
+    }
+
+    private FlightGraph.Result toResult(Profiles p, int entry, int weekBase) {
+        CompactGraph g = table.graph;
+        List<String> airports = new ArrayList<>();
+        List<FlightGraph.Flight> flights = new ArrayList<>();
+        airports.add(g.codeOf(table.from[p.entryConn[entry]]));
+        int arrival = 0;
+        for (int e = entry; e >= 0; e = p.entryNext[e]) {
+            int c = p.entryConn[e];
+            flights.add(new FlightGraph.Flight(g.codeOf(table.from[c]), g.codeOf(table.to[c]),
+                    table.dep[c] + weekBase, table.arr[c] + weekBase));
+            airports.add(g.codeOf(table.to[c]));
+            arrival = table.arr[c] + weekBase;
+        }
+        return new FlightGraph.Result(airports, flights, arrival);
+    }
+
+    /*
+     * Per-airport Pareto lists. Entries live in one pool (entryDep/Arr/Conn/Next); each airport
+     * has an array of entry ids in insertion order. Since we scan backwards in time, departures
+     * in a list only decrease and we only append when the arrival strictly improves, so arrivals
+     * decrease too.
+     */
+    private static final class Profiles {
+        int[] entryDep = new int[64];
+        int[] entryArr = new int[64];
+        int[] entryConn = new int[64];
+        int[] entryNext = new int[64];  // entry taken after landing, -1 at the target
+        int entries = 0;
+
+        final int[][] lists;
+        final int[] sizes;
+
+        Profiles(int airports) {
+            lists = new int[airports][];
+            sizes = new int[airports];
+        }
+
+        void offer(int airport, int dep, int arr, int conn, int next) {
+            int size = sizes[airport];
+            if (size > 0 && entryArr[lists[airport][size - 1]] <= arr) return; // dominated
+
+            if (entries == entryDep.length) {
+                int cap = entries * 2;
+                entryDep = Arrays.copyOf(entryDep, cap);
+                entryArr = Arrays.copyOf(entryArr, cap);
+                entryConn = Arrays.copyOf(entryConn, cap);
+                entryNext = Arrays.copyOf(entryNext, cap);
+            }
+            int e = entries++;
+            entryDep[e] = dep;
+            entryArr[e] = arr;
+            entryConn[e] = conn;
+            entryNext[e] = next;
+
+            int[] list = lists[airport];
+            if (list == null) {
+                list = lists[airport] = new int[4];
+            } else if (size == list.length) {
+                list = lists[airport] = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = e;
+            sizes[airport] = size + 1;
+        }
+
+        /** Entry with the earliest arrival among those leaving airport at or after time, or -1. */
+        int best(int airport, int time) {
+            int[] list = lists[airport];
+            int size = sizes[airport];
+            // departures decrease along the list: find how many still leave at or after time
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (entryDep[list[mid]] >= time) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo == 0 ? -1 : list[lo - 1];
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.SearchWorkspace;
+import com.ada.flightsproject.utility.Utility;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Earliest arrival from every airport to every airport, for every start minute of the week
+ * (10,080 of them), as step functions:
+ *
+ *   KUL -> KIX   start in [0, 470]      arrive 2350   (Tue 15:10)
+ *                start in [471, 1910]   arrive 3790   (Wed 15:10)
+ *                ...
+ *
+ * Like for the transfer patterns, all start times between two departures of the origin have
+ * the same answer. So per origin we sweep its departures of the week from the last to the first
+ * and run one search per departure. The runs share their arrival labels: leaving earlier can
+ * never land later, so a run only has to look at what the earlier start actually improves, and
+ * most of them stop after a few airports. Each improvement closes a step of that destination.
+ * Origins are independent and are built in parallel.
+ *
+ * A step stores the last start minute it covers and the arrival (minutes from Monday 00:00 of
+ * week 0, so past the end of the week means next week). The 2-week cap of FlightGraph is checked
+ * on lookup, per start minute. Answers match FlightGraph.earliestArrival for the same layover.
+ *
+ * Both fit in 16 bits (an arrival is at most the last start of the week + 2 weeks = 30,239), so
+ * steps are stored as chars: 4 bytes a step, and a connected pair has about 5 steps on the
+ * synthetic timetables.
+ *
+ * Questions planners ask go straight to the steps, without searching:
+ *   - arrival / travel time from A to B when leaving at T
+ *   - which airports A reaches within N hours when leaving at T
+ *   - for how many start minutes of the week B is within N hours of A (see writeCsv)
+ */
+public final class ReachabilityMatrix {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+    private static final int CAP = 2 * WEEK; // same window as FlightGraph's search
+    private static final int INF = Integer.MAX_VALUE;
+    private static final char NOT_REACHED = Character.MAX_VALUE; // stepArrival for INF
+
+    private final CompactGraph graph;
+    private final int minLayover;
+
+    private final int[] sourcePairBegin; // per origin (+1): first pair index
+    private final int[] pairTarget;      // per pair: destination id, sorted per origin
+    private final int[] pairStepBegin;   // per pair (+1): first step
+    private final char[] stepLastStart;  // per step: last start minute of the week it covers, ascending per pair
+    private final char[] stepArrival;    // per step: arrival, NOT_REACHED from those starts
+
+    private ReachabilityMatrix(CompactGraph graph, int minLayover, int[] sourcePairBegin, int[] pairTarget,
+                               int[] pairStepBegin, char[] stepLastStart, char[] stepArrival) {
+        this.graph = graph;
+        this.minLayover = minLayover;
+        this.sourcePairBegin = sourcePairBegin;
+        this.pairTarget = pairTarget;
+        this.pairStepBegin = pairStepBegin;
+        this.stepLastStart = stepLastStart;
+        this.stepArrival = stepArrival;
+    }
+
+    /**
+     * Sweeps every origin, spread over all cores.
+     *
+     * @param minLayover layover before every flight, as in FlightGraph.earliestArrival
+     */
+    public static ReachabilityMatrix build(FlightGraph graph, int minLayover) {
+        DepartureIndex idx = graph.snapshot().departureIndex();
+        CompactGraph g = idx.graph();
+        int n = g.airportCount();
+
+        int[][] targets = new int[n][];
+        char[][] lastStarts = new char[n][];
+        char[][] arrivals = new char[n][];
+        int[][] stepBegins = new int[n][];
+        IntStream.range(0, n).parallel().forEach(s -> {
+            Sweep sweep = new Sweep(idx, s, minLayover);
+            sweep.run();
+            targets[s] = sweep.targets;
+            stepBegins[s] = sweep.stepBegin;
+            lastStarts[s] = sweep.lastStart;
+            arrivals[s] = sweep.arrival;
+        });
+
+        // lay it out flat
+        int pairs = 0;
+        int steps = 0;
+        for (int s = 0; s < n; s++) {
+            pairs += targets[s].length;
+            steps += lastStarts[s].length;
+        }
+        int[] sourcePairBegin = new int[n + 1];
+        int[] pairTarget = new int[pairs];
+        int[] pairStepBegin = new int[pairs + 1];
+        char[] stepLastStart = new char[steps];
+        char[] stepArrival = new char[steps];
+        int pair = 0;
+        int at = 0;
+        for (int s = 0; s < n; s++) {
+            sourcePairBegin[s] = pair;
+            for (int i = 0; i < targets[s].length; i++) {
+                pairTarget[pair] = targets[s][i];
+                pairStepBegin[pair] = at + stepBegins[s][i];
+                pair++;
+            }
+            System.arraycopy(lastStarts[s], 0, stepLastStart, at, lastStarts[s].length);
+            System.arraycopy(arrivals[s], 0, stepArrival, at, arrivals[s].length);
+            at += lastStarts[s].length;
+        }
+        sourcePairBegin[n] = pair;
+        pairStepBegin[pairs] = at;
+
+        return new ReachabilityMatrix(g, minLayover, sourcePairBegin, pairTarget, pairStepBegin,
+                stepLastStart, stepArrival);
+    }
+
+    /*
+     * All runs of one origin s, latest start first, in the thread's SearchWorkspace. The workspace
+     * is reset once per origin, not per run: that is what lets each run keep the labels of the
+     * previous (later) one.
+     */
+    private static final class Sweep {
+        final DepartureIndex idx;
+        final int s;
+        final int minLayover;
+
+        // per destination: the step being built (it ends at openEnd, its start is not known yet)
+        final int[] openEnd;
+        final int[] openArrival;
+        final int[][] steps;          // per destination: finished steps, pairs of (lastStart, arrival), latest first
+        final int[] stepCount;
+        final int[] touchedInRun;     // run number that last improved the destination
+        final int[] touched;          // destinations improved by the current run
+        int touchedCount;
+
+        // output, destinations ascending, steps ascending by start
+        int[] targets;
+        int[] stepBegin;
+        char[] lastStart;
+        char[] arrival;
+
+        Sweep(DepartureIndex idx, int s, int minLayover) {
+            this.idx = idx;
+            this.s = s;
+            this.minLayover = minLayover;
+            int n = idx.graph().airportCount();
+            openEnd = new int[n];
+            openArrival = new int[n];
+            steps = new int[n][];
+            stepCount = new int[n];
+            touchedInRun = new int[n];
+            touched = new int[n];
+            Arrays.fill(openEnd, WEEK - 1);
+            Arrays.fill(openArrival, INF);
+            Arrays.fill(touchedInRun, -1);
+        }
+
+        void run() {
+            int n = idx.graph().airportCount();
+
+            // Start minutes at which a departure of s is exactly the first one we can board,
+            // folded into [0, WEEK): all starts up to there (and after the previous one) share its answer
+            int[] departures = idx.departureTimes(s);
+            int[] starts = new int[departures.length];
+            for (int i = 0; i < departures.length; i++) {
+                int start = departures[i] - minLayover;
+                starts[i] = start < 0 ? start + WEEK : start;
+            }
+            Arrays.sort(starts);
+
+            SearchWorkspace ws = SearchWorkspace.forCurrentThread();
+            ws.reset(n);
+            int runs = 0;
+            search(ws, WEEK - 1, runs++); // the last minute of the week: covers everything after the last start
+            for (int i = starts.length - 1; i >= 0; i--) {
+                if (starts[i] == WEEK - 1 || (i + 1 < starts.length && starts[i] == starts[i + 1])) continue;
+                search(ws, starts[i], runs++);
+            }
+
+            // close the first step of every destination (it runs from minute 0) and lay them out
+            int pairs = 0;
+            int total = 0;
+            for (int v = 0; v < n; v++) {
+                if (touchedInRun[v] < 0) continue;
+                pairs++;
+                total += stepCount[v] + 1;
+            }
+            targets = new int[pairs];
+            stepBegin = new int[pairs];
+            lastStart = new char[total];
+            arrival = new char[total];
+            int p = 0;
+            int at = 0;
+            for (int v = 0; v < n; v++) {
+                if (touchedInRun[v] < 0) continue;
+                targets[p] = v;
+                stepBegin[p++] = at;
+                lastStart[at] = (char) openEnd[v];
+                arrival[at++] = packed(openArrival[v]);
+                for (int k = stepCount[v] - 1; k >= 0; k--) {
+                    lastStart[at] = (char) steps[v][2 * k];
+                    arrival[at++] = packed(steps[v][2 * k + 1]);
+                }
+            }
+        }
+
+        /*
+         * FlightGraph's search from s at start, on top of the labels left by the later starts:
+         * only airports we now reach strictly earlier are queued again.
+         */
+        void search(SearchWorkspace ws, int start, int run) {
+            final int maxTime = start + CAP;
+            touchedCount = 0;
+            ws.improve(s, start, -1, 0);
+            ws.push(s, start);
+
+            while (!ws.isEmpty()) {
+                long cur = ws.pop();
+                int u = SearchWorkspace.airportOf(cur);
+                int time = SearchWorkspace.timeOf(cur);
+                if (time > ws.best(u) || time > maxTime) continue;
+
+                int earliestAllowed = time + minLayover;
+                for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                    long next = idx.nextConnection(grp, earliestAllowed, maxTime);
+                    if (next == DepartureIndex.NONE) continue;
+                    int candidateArr = DepartureIndex.arriveOf(next);
+                    int v = idx.groupTo(grp);
+                    if (v != s && candidateArr < ws.best(v)) {
+                        ws.improve(v, candidateArr, u, DepartureIndex.departOf(next));
+                        ws.push(v, candidateArr);
+                        if (touchedInRun[v] != run) {
+                            touchedInRun[v] = run;
+                            touched[touchedCount++] = v;
+                        }
+                    }
+                }
+            }
+
+            // Every improved destination starts a new step at this start minute
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                if (openEnd[v] > start) {
+                    addStep(v, openEnd[v], openArrival[v]); // covered (start, openEnd]
+                    openEnd[v] = start;
+                }
+                openArrival[v] = ws.best(v);
+            }
+        }
+
+        static char packed(int arr) {
+            return arr == INF ? NOT_REACHED : (char) arr;
+        }
+
+        void addStep(int v, int end, int arr) {
+            int[] list = steps[v];
+            int size = stepCount[v];
+            if (list == null) {
+                list = steps[v] = new int[8];
+            } else if (2 * size == list.length) {
+                list = steps[v] = Arrays.copyOf(list, list.length * 2);
+            }
+            list[2 * size] = end;
+            list[2 * size + 1] = arr;
+            stepCount[v] = size + 1;
+        }
+    }
+
+    public int minLayover() {
+        return minLayover;
+    }
+
+    /** Number of (origin, destination) pairs that are connected for at least one start minute. */
+    public int pairCount() {
+        return pairTarget.length;
+    }
+
+    /** Number of steps over all pairs (the size of the matrix, see the class comment). */
+    public int stepCount() {
+        return stepLastStart.length;
+    }
+
+    /**
+     * Earliest arrival leaving origin at startTime, same as FlightGraph.earliestArrival(...).arrivalTime.
+     *
+     * @return arrival in minutes on startTime's scale, or Integer.MAX_VALUE if not reachable
+     */
+    public int arrival(String origin, String destination, int startTime) {
+        if (origin.equals(destination)) return startTime;
+        int s = graph.idOf(origin);
+        int v = graph.idOf(destination);
+        if (s < 0 || v < 0) return INF;
+        int pair = pairOf(s, v);
+        if (pair < 0) return INF;
+        int t = startTime % WEEK;
+        int arr = arrivalAt(pair, t);
+        return arr == INF ? INF : startTime - t + arr;
+    }
+
+    /** Travel time in minutes leaving at startTime, or Integer.MAX_VALUE if not reachable. */
+    public int travelTime(String origin, String destination, int startTime) {
+        int arr = arrival(origin, destination, startTime);
+        return arr == INF ? INF : arr - startTime;
+    }
+
+    /**
+     * Airports reachable from origin within maxMinutes when leaving at startTime, by code.
+     */
+    public List<String> reachableWithin(String origin, int startTime, int maxMinutes) {
+        List<String> reached = new ArrayList<>();
+        int s = graph.idOf(origin);
+        if (s < 0) return reached;
+        int t = startTime % WEEK;
+        for (int pair = sourcePairBegin[s]; pair < sourcePairBegin[s + 1]; pair++) {
+            int arr = arrivalAt(pair, t);
+            if (arr != INF && arr - t <= maxMinutes) reached.add(graph.codeOf(pairTarget[pair]));
+        }
+        return reached;
+    }
+
+    /**
+     * For how many of the week's start minutes destination is reached within maxMinutes
+     * (0 .. 10,080).
+     */
+    public int startMinutesWithin(String origin, String destination, int maxMinutes) {
+        int s = graph.idOf(origin);
+        int v = graph.idOf(destination);
+        if (s < 0 || v < 0 || s == v) return 0;
+        int pair = pairOf(s, v);
+        return pair < 0 ? 0 : startMinutesWithin(pair, maxMinutes);
+    }
+
+    /**
+     * Exports one row per connected (origin, destination) pair:
+     *
+     *   origin,destination,fastest_minutes,start_minutes_within
+     *   KUL,KIX,430,2815
+     *
+     * fastest_minutes is the shortest travel time over the whole week, start_minutes_within the
+     * number of start minutes (of 10,080) from which the destination is reached within maxMinutes.
+     *
+     * @return number of rows written
+     */
+    public int writeCsv(Path file, int maxMinutes) throws IOException {
+        int rows = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("origin,destination,fastest_minutes,start_minutes_within\n");
+            for (int s = 0; s + 1 < sourcePairBegin.length; s++) {
+                for (int pair = sourcePairBegin[s]; pair < sourcePairBegin[s + 1]; pair++) {
+                    int fastest = fastest(pair);
+                    if (fastest == INF) continue;
+                    out.write(graph.codeOf(s) + "," + graph.codeOf(pairTarget[pair]) + "," + fastest + ","
+                            + startMinutesWithin(pair, maxMinutes) + "\n");
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int pairOf(int s, int v) {
+        int idx = Arrays.binarySearch(pairTarget, sourcePairBegin[s], sourcePairBegin[s + 1], v);
+        return idx < 0 ? -1 : idx;
+    }
+
+    /* arrival for start minute t (0 .. WEEK - 1) of the week, INF past the 2-week cap */
+    private int arrivalAt(int pair, int t) {
+        int idx = Arrays.binarySearch(stepLastStart, pairStepBegin[pair], pairStepBegin[pair + 1], (char) t);
+        if (idx < 0) idx = -idx - 1; // first step ending at or after t (the last one ends at WEEK - 1)
+        int arr = stepArrival[idx];
+        return arr != NOT_REACHED && arr - t <= CAP ? arr : INF;
+    }
+
+    /*
+     * Within a step (first .. last start) the arrival is fixed, so the travel time shrinks as the
+     * start gets later: the step is within the limit from max(first, arrival - limit) on.
+     */
+    private int startMinutesWithin(int pair, int maxMinutes) {
+        int limit = Math.min(maxMinutes, CAP);
+        int count = 0;
+        int first = 0;
+        for (int k = pairStepBegin[pair]; k < pairStepBegin[pair + 1]; k++) {
+            int last = stepLastStart[k];
+            if (stepArrival[k] != NOT_REACHED) {
+                count += Math.max(0, last - Math.max(first, stepArrival[k] - limit) + 1);
+            }
+            first = last + 1;
+        }
+        return count;
+    }
+
+    /* shortest travel time over the week: each step is fastest at its last start minute */
+    private int fastest(int pair) {
+        int best = INF;
+        for (int k = pairStepBegin[pair]; k < pairStepBegin[pair + 1]; k++) {
+            int arr = stepArrival[k];
+            if (arr != NOT_REACHED && arr - stepLastStart[k] <= CAP) best = Math.min(best, arr - stepLastStart[k]);
+        }
+        return best;
+    }
+}
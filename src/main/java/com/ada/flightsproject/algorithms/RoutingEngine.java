@@ -0,0 +1,53 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+
+/**
+ * Anything that can answer "earliest arrival from source to target".
+ *
+ * All engines share FlightGraph's semantics (times in week-minutes, flights repeat weekly,
+ * minLayover before every boarding, search capped at startTime + 2 weeks), so their
+ * results can be checked against each other.
+ */
+public interface RoutingEngine {
+
+    /** System property used to pick the engine per deployment, e.g. -Dflights.engine=csa */
+    String ENGINE_PROPERTY = "flights.engine";
+
+    FlightGraph.Result earliestArrival(String source, String target, int startTime, int minLayover);
+
+    /**
+     * One search from source, arrival times for every airport. Any destination's Result can be
+     * pulled from the tree with resultTo(target) instead of calling earliestArrival again.
+     */
+    ArrivalTree arrivalTree(String source, int startTime, int minLayover);
+
+    /**
+     * Picks an engine by name:
+     *   "dijkstra" (default) -> FlightGraph's own priority-queue search
+     *   "csa"                -> ConnectionScan
+     *   "raptor"             -> TransferBoundedSearch (rounds by number of flights)
+     *   "astar"              -> GoalDirectedSearch (landmark lower bounds, same answers, less work)
+     */
+    static RoutingEngine create(String name, FlightGraph graph) {
+        if (name == null || name.isBlank() || name.equalsIgnoreCase("dijkstra")) {
+            return graph;
+        }
+        if (name.equalsIgnoreCase("csa")) {
+            return new ConnectionScan(graph);
+        }
+        if (name.equalsIgnoreCase("raptor")) {
+            return new TransferBoundedSearch(graph);
+        }
+        if (name.equalsIgnoreCase("astar")) {
+            return new GoalDirectedSearch(graph);
+        }
+        throw new IllegalArgumentException("Unknown routing engine: " + name);
+    }
+
+    /** Same as create(), with the name taken from the flights.engine system property. */
+    static RoutingEngine fromSystemProperty(FlightGraph graph) {
+        return create(System.getProperty(ENGINE_PROPERTY), graph);
+    }
+}
@@ -0,0 +1,210 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RAPTOR-style search in rounds: after round k we know the earliest arrival at every airport
+ * using AT MOST k flights.
+ *
+ *   round 1: KUL ──────────────> KIX   arrives Tue 22:00 (direct)
+ *   round 2: KUL ──> HKG ──────> KIX   arrives Tue 15:10 (1 stop)
+ *   round 3: KUL ──> SIN ──> ... KIX   arrives Tue 14:55 (2 stops)
+ *
+ * So one run gives the whole trade-off "fewer hops vs. earlier arrival" (a Pareto front),
+ * not just the single earliest path. Each round only looks at airports that improved in the
+ * previous round, and uses the DepartureIndex for the next catchable flight per route.
+ *
+ * Same rules as FlightGraph.earliestArrival (weekly repeat, minLayover before every boarding,
+ * 2-week cap).
+ */
+public class TransferBoundedSearch implements RoutingEngine {
+
+    /** Pass as maxHops to run until nothing improves any more. */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final FlightGraph graph;
+
+    /** Searches a snapshot of the graph as it is now (like ConnectionScan, later addFlight calls are not seen). */
+    public TransferBoundedSearch(FlightGraph graph) {
+        this.graph = graph.snapshot();
+    }
+
+    /**
+     * The earliest arrival for each hop count where it gets better.
+     *
+     * @param maxHops maximum number of flights (UNLIMITED for no bound)
+     * @return results ordered by number of flights; each one arrives strictly earlier than the one
+     *         before it. Empty if the target cannot be reached within maxHops.
+     */
+    public List<FlightGraph.Result> paretoByHops(String source, String target, int startTime, int minLayover, int maxHops) {
+        CompactGraph g = graph.compact();
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (src < 0 || dst < 0 || src == dst) {
+            return Collections.emptyList();
+        }
+
+        Rounds rounds = run(src, dst, startTime, minLayover, maxHops);
+
+        List<FlightGraph.Result> front = new ArrayList<>();
+        int bestSoFar = INF;
+        for (int k = 1; k < rounds.count(); k++) {
+            int arr = rounds.arrival.get(k)[dst];
+            if (arr < bestSoFar) {
+                bestSoFar = arr;
+                front.add(rounds.resultTo(g, src, dst, k));
+            }
+        }
+        return front;
+    }
+
+    @Override
+    public FlightGraph.Result earliestArrival(String source, String target, int startTime, int minLayover) {
+        if (source.equals(target)) {
+            return new FlightGraph.Result(List.of(source), Collections.emptyList(), startTime);
+        }
+        List<FlightGraph.Result> front = paretoByHops(source, target, startTime, minLayover, UNLIMITED);
+        if (front.isEmpty()) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+        return front.get(front.size() - 1);
+    }
+
+    @Override
+    public ArrivalTree arrivalTree(String source, int startTime, int minLayover) {
+        CompactGraph g = graph.compact();
+        int n = g.airportCount();
+        int src = g.idOf(source);
+        int[] arrival = new int[n];
+        int[] prevAirport = new int[n];
+        int[] prevDepart = new int[n];
+        Arrays.fill(arrival, INF);
+        if (src >= 0) {
+            Rounds rounds = run(src, -1, startTime, minLayover, UNLIMITED);
+            // The last round holds the final arrivals; take each airport's predecessor from the
+            // round it last improved in. Flying into u earlier never makes that flight uncatchable.
+            int last = rounds.count() - 1;
+            System.arraycopy(rounds.arrival.get(last), 0, arrival, 0, n);
+            for (int v = 0; v < n; v++) {
+                int r = last;
+                while (r > 0 && rounds.arrival.get(r)[v] == rounds.arrival.get(r - 1)[v]) r--;
+                if (r > 0) {
+                    prevAirport[v] = rounds.prevAirport.get(r)[v];
+                    prevDepart[v] = rounds.prevDepart.get(r)[v];
+                }
+            }
+        }
+        return new ArrivalTree(g, source, startTime, arrival, prevAirport, prevDepart);
+    }
+
+    /*
+     * The rounds themselves. dst = -1 means no target pruning (one-to-all).
+     */
+    private Rounds run(int src, int dst, int startTime, int minLayover, int maxHops) {
+        final int MAX_TIME = startTime + 2 * Utility.MINUTES_IN_WEEK; // cap search to 2 weekly cycles
+
+        DepartureIndex idx = graph.departureIndex();
+        CompactGraph g = idx.graph();
+        int n = g.airportCount();
+
+        Rounds rounds = new Rounds();
+        int[] arr0 = new int[n];
+        Arrays.fill(arr0, INF);
+        arr0[src] = startTime;
+        rounds.add(arr0, new int[n], new int[n]);
+
+        boolean[] marked = new boolean[n];
+        boolean[] nextMarked = new boolean[n];
+        marked[src] = true;
+        boolean anyMarked = true;
+
+        for (int k = 1; k <= maxHops && anyMarked; k++) {
+            int[] before = rounds.arrival.get(k - 1);
+            int[] arr = before.clone();          // at most k flights is never worse than at most k-1
+            int[] prevAirport = new int[n];
+            int[] prevDepart = new int[n];
+
+            anyMarked = false;
+            Arrays.fill(nextMarked, false);
+
+            for (int u = 0; u < n; u++) {
+                if (!marked[u]) continue;
+                int earliestAllowed = before[u] + minLayover;
+
+                for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                    long next = idx.nextConnection(grp, earliestAllowed, MAX_TIME);
+                    if (next == DepartureIndex.NONE) continue;
+
+                    int candidateArr = DepartureIndex.arriveOf(next);
+                    int v = idx.groupTo(grp);
+                    // Must improve v, and (target pruning) must be able to beat the target's arrival
+                    if (candidateArr >= arr[v]) continue;
+                    if (dst >= 0 && candidateArr >= arr[dst]) continue;
+
+                    arr[v] = candidateArr;
+                    prevAirport[v] = u;
+                    prevDepart[v] = DepartureIndex.departOf(next);
+                    nextMarked[v] = true;
+                    anyMarked = true;
+                }
+            }
+
+            rounds.add(arr, prevAirport, prevDepart);
+            boolean[] tmp = marked;
+            marked = nextMarked;
+            nextMarked = tmp;
+        }
+        return rounds;
+    }
+
+    /*
+     * Per round k: arrival with at most k flights, and for airports that improved in round k,
+     * the flight that did it.
+     */
+    private static final class Rounds {
+        final List<int[]> arrival = new ArrayList<>();
+        final List<int[]> prevAirport = new ArrayList<>();
+        final List<int[]> prevDepart = new ArrayList<>();
+
+        void add(int[] arr, int[] prev, int[] dep) {
+            arrival.add(arr);
+            prevAirport.add(prev);
+            prevDepart.add(dep);
+        }
+
+        int count() {
+            return arrival.size();
+        }
+
+        FlightGraph.Result resultTo(CompactGraph g, int src, int dst, int round) {
+            List<String> airports = new ArrayList<>();
+            List<FlightGraph.Flight> flights = new ArrayList<>();
+            int v = dst;
+            int r = round;
+            airports.add(g.codeOf(v));
+            while (v != src) {
+                // go back to the round in which v got this arrival
+                while (arrival.get(r)[v] == arrival.get(r - 1)[v]) r--;
+                int u = prevAirport.get(r)[v];
+                flights.add(new FlightGraph.Flight(g.codeOf(u), g.codeOf(v), prevDepart.get(r)[v], arrival.get(r)[v]));
+                airports.add(g.codeOf(u));
+                v = u;
+                r--;
+            }
+            Collections.reverse(airports);
+            Collections.reverse(flights);
+            return new FlightGraph.Result(airports, flights, arrival.get(round)[dst]);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed transfer patterns: for every (source, target) pair, the few airport sequences
+ * that an earliest-arrival journey can take, whatever the start time.
+ *
+ *   KUL -> KIX:  [KIX]              (direct)
+ *                [HKG, KIX]         (via Hong Kong)
+ *                [SIN, NRT, KIX]
+ *
+ * Where they come from: starting at the source at time T, the first flight we can board is the
+ * first departure at or after T + minLayover, so all start times between two departures have
+ * the same answer. One one-to-all search per distinct departure time of the source (per week)
+ * therefore covers every start time. We keep only the airport sequence of each optimal path.
+ *
+ * A query (see TransferPatternSearch) then just follows each pattern of its pair with
+ * DepartureIndex.nextConnection, a few direct lookups instead of a search, and takes the
+ * earliest arrival. That is exact: the optimal journey's pattern is in the list, and taking
+ * the first catchable flight on each leg is optimal for a fixed sequence (FIFO).
+ *
+ * The patterns depend on minLayover and on the timetable, so the index records both. The
+ * timetable is recorded as a fingerprint of the CompactGraph it was built from.
+ */
+public final class TransferPatternIndex {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final long graphFingerprint;
+    private final int minLayover;
+
+    private final int[] sourcePairBegin; // per source airport (+1): first pair index
+    private final int[] pairTarget;      // per pair: target airport id, sorted per source
+    private final int[] pairDataBegin;   // per pair (+1): first int of its patterns in data
+    private final int[] data;            // patterns, each as [length, airport, airport, ..., target]
+
+    private TransferPatternIndex(long graphFingerprint, int minLayover, int[] sourcePairBegin,
+                                 int[] pairTarget, int[] pairDataBegin, int[] data) {
+        this.graphFingerprint = graphFingerprint;
+        this.minLayover = minLayover;
+        this.sourcePairBegin = sourcePairBegin;
+        this.pairTarget = pairTarget;
+        this.pairDataBegin = pairDataBegin;
+        this.data = data;
+    }
+
+    /**
+     * Wraps arrays read back from disk (see TransferPatternFile); they are not copied.
+     */
+    public static TransferPatternIndex of(long graphFingerprint, int minLayover, int[] sourcePairBegin,
+                                          int[] pairTarget, int[] pairDataBegin, int[] data) {
+        return new TransferPatternIndex(graphFingerprint, minLayover, sourcePairBegin, pairTarget, pairDataBegin, data);
+    }
+
+    /**
+     * The offline step: one one-to-all search per (source, distinct departure time), spread over
+     * all cores. Takes a while on a big timetable; meant to run once per timetable, not per query.
+     *
+     * @param minLayover the layover queries will use; other layovers fall back to the live search
+     */
+    public static TransferPatternIndex build(FlightGraph graph, int minLayover) {
+        FlightGraph snapshot = graph.snapshot();
+        CompactGraph g = snapshot.compact();
+        int n = g.airportCount();
+
+        // per source: target -> its patterns (each one the path without the source)
+        int[][][] perSource = new int[n][][];
+        int[][] targetsPerSource = new int[n][];
+        IntStream.range(0, n).parallel().forEach(s -> {
+            TreeMap<Integer, Set<List<Integer>>> byTarget = patternsFrom(snapshot, s, minLayover);
+            targetsPerSource[s] = byTarget.keySet().stream().mapToInt(Integer::intValue).toArray();
+            perSource[s] = byTarget.values().stream()
+                    .map(TransferPatternIndex::flatten)
+                    .toArray(int[][]::new);
+        });
+
+        // lay it out flat
+        int pairs = 0;
+        int ints = 0;
+        for (int s = 0; s < n; s++) {
+            pairs += targetsPerSource[s].length;
+            for (int[] p : perSource[s]) ints += p.length;
+        }
+        int[] sourcePairBegin = new int[n + 1];
+        int[] pairTarget = new int[pairs];
+        int[] pairDataBegin = new int[pairs + 1];
+        int[] data = new int[ints];
+        int pair = 0;
+        int at = 0;
+        for (int s = 0; s < n; s++) {
+            sourcePairBegin[s] = pair;
+            for (int i = 0; i < targetsPerSource[s].length; i++) {
+                pairTarget[pair] = targetsPerSource[s][i];
+                pairDataBegin[pair] = at;
+                System.arraycopy(perSource[s][i], 0, data, at, perSource[s][i].length);
+                at += perSource[s][i].length;
+                pair++;
+            }
+        }
+        sourcePairBegin[n] = pair;
+        pairDataBegin[pairs] = at;
+
+        return new TransferPatternIndex(fingerprint(g), minLayover, sourcePairBegin, pairTarget, pairDataBegin, data);
+    }
+
+    /*
+     * Patterns of all optimal paths from source s, over one search per distinct departure of s.
+     */
+    private static TreeMap<Integer, Set<List<Integer>>> patternsFrom(FlightGraph graph, int s, int minLayover) {
+        DepartureIndex idx = graph.departureIndex();
+        CompactGraph g = idx.graph();
+        TreeMap<Integer, Set<List<Integer>>> byTarget = new TreeMap<>();
+
+        for (int dep : idx.departureTimes(s)) {
+            // the start time at which dep is exactly the first flight we could board
+            int start = dep - minLayover;
+            if (start < 0) start += WEEK;
+            ArrivalTree tree = graph.arrivalTree(g.codeOf(s), start, minLayover);
+
+            for (int v = 0; v < g.airportCount(); v++) {
+                if (v == s || tree.arrivalAt(v) == INF) continue;
+                List<Integer> path = new ArrayList<>();
+                for (int cur = v; cur != s; cur = tree.prevAirport(cur)) {
+                    path.add(cur);
+                }
+                Collections.reverse(path);
+                byTarget.computeIfAbsent(v, k -> new LinkedHashSet<>()).add(path);
+            }
+        }
+        return byTarget;
+    }
+
+    /* patterns of one pair as [length, airports...][length, airports...]... */
+    private static int[] flatten(Set<List<Integer>> patterns) {
+        int size = 0;
+        for (List<Integer> p : patterns) size += 1 + p.size();
+        int[] out = new int[size];
+        int at = 0;
+        for (List<Integer> p : patterns) {
+            out[at++] = p.size();
+            for (int airport : p) out[at++] = airport;
+        }
+        return out;
+    }
+
+    /**
+     * 64-bit fingerprint of a timetable: airport codes and every flight. Two graphs with the same
+     * flights give the same value, whatever order the flights were loaded in.
+     */
+    public static long fingerprint(CompactGraph g) {
+        long h = g.airportCount();
+        for (int u = 0; u < g.airportCount(); u++) {
+            long edges = 0; // order-independent within an airport
+            for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                edges += mix(((long) g.edgeTo(e) << 40) ^ ((long) g.edgeDepart(e) << 20) ^ g.edgeDuration(e));
+            }
+            h = mix(h * 31 + g.codeOf(u).hashCode()) ^ edges;
+        }
+        return h;
+    }
+
+    /* splitmix64 finaliser */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** True if this index was built for exactly this timetable. */
+    public boolean matches(CompactGraph g) {
+        return graphFingerprint == fingerprint(g);
+    }
+
+    /**
+     * @return the pair index of (source, target), or -1 if target is never reachable from source
+     */
+    int pairOf(int source, int target) {
+        int idx = Arrays.binarySearch(pairTarget, sourcePairBegin[source], sourcePairBegin[source + 1], target);
+        return idx < 0 ? -1 : idx;
+    }
+
+    int dataBegin(int pair) {
+        return pairDataBegin[pair];
+    }
+
+    int dataEnd(int pair) {
+        return pairDataBegin[pair + 1];
+    }
+
+    int data(int i) {
+        return data[i];
+    }
+
+    public long graphFingerprint() {
+        return graphFingerprint;
+    }
+
+    public int minLayover() {
+        return minLayover;
+    }
+
+    public int airportCount() {
+        return sourcePairBegin.length - 1;
+    }
+
+    public int pairCount() {
+        return pairTarget.length;
+    }
+
+    // Raw arrays, for TransferPatternFile. Not copied: do not modify.
+
+    public int[] sourcePairBegin() {
+        return sourcePairBegin;
+    }
+
+    public int[] pairTarget() {
+        return pairTarget;
+    }
+
+    public int[] pairDataBegin() {
+        return pairDataBegin;
+    }
+
+    public int[] patternData() {
+        return data;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Point-to-point queries answered from a TransferPatternIndex: look up the pair's patterns,
+ * follow each one leg by leg with DepartureIndex.nextConnection, keep the earliest arrival.
+ *
+ *   KUL -> KIX, Mon 08:00, layover 60
+ *     [KIX]          first KUL->KIX after 09:00 ................... arrives Tue 22:00
+ *     [HKG, KIX]     KUL->HKG after 09:00, HKG->KIX after landing+60 arrives Tue 15:10  <- best
+ *
+ * Falls back to the graph's own search when the index cannot answer:
+ * - it was built for another timetable (stale), or
+ * - the query uses a different minLayover than the index was built for.
+ */
+public class TransferPatternSearch implements RoutingEngine {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final FlightGraph graph;
+    private final TransferPatternIndex index; // null if stale
+    private final boolean fresh;
+
+    /**
+     * @param graph timetable to answer for (a snapshot is taken)
+     * @param index may be null or stale; then every query goes to the live search
+     */
+    public TransferPatternSearch(FlightGraph graph, TransferPatternIndex index) {
+        this.graph = graph.snapshot();
+        this.fresh = index != null && index.matches(this.graph.compact());
+        this.index = fresh ? index : null;
+    }
+
+    /** False if the index was built for a different timetable (or missing): every query falls back. */
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    /** The snapshot this engine answers for. */
+    public FlightGraph graph() {
+        return graph;
+    }
+
+    /** True if queries with this layover are answered from the index. */
+    public boolean serves(int minLayover) {
+        return fresh && index.minLayover() == minLayover;
+    }
+
+    @Override
+    public FlightGraph.Result earliestArrival(String source, String target, int startTime, int minLayover) {
+        DepartureIndex idx = graph.departureIndex();
+        CompactGraph g = idx.graph();
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+        if (!serves(minLayover) || src < 0 || dst < 0 || src == dst || startTime < 0) {
+            return graph.earliestArrival(source, target, startTime, minLayover);
+        }
+
+        int pair = index.pairOf(src, dst);
+        if (pair < 0) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+
+        final int MAX_TIME = startTime + 2 * Utility.MINUTES_IN_WEEK; // same 2-week cap as the search
+        int best = INF;
+        int bestPattern = -1;
+        for (int p = index.dataBegin(pair), end = index.dataEnd(pair); p < end; p += 1 + index.data(p)) {
+            int arrival = follow(idx, src, p, startTime, minLayover, MAX_TIME, best, null);
+            if (arrival < best) {
+                best = arrival;
+                bestPattern = p;
+            }
+        }
+        if (bestPattern < 0) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+
+        // Follow the winner once more, this time writing down the flights
+        List<FlightGraph.Flight> flights = new ArrayList<>();
+        follow(idx, src, bestPattern, startTime, minLayover, MAX_TIME, INF, flights);
+        List<String> airports = new ArrayList<>();
+        airports.add(source);
+        for (FlightGraph.Flight f : flights) airports.add(f.to);
+        return new FlightGraph.Result(airports, flights, best);
+    }
+
+    /**
+     * No index for one-to-all; this is the graph's own search.
+     */
+    @Override
+    public ArrivalTree arrivalTree(String source, int startTime, int minLayover) {
+        return graph.arrivalTree(source, startTime, minLayover);
+    }
+
+    /*
+     * Takes the first catchable flight on every leg of the pattern starting at data[p].
+     * Returns the arrival, or INF if some leg has nothing in time or we are already not
+     * beating giveUpAt. With flights != null the legs taken are added to it.
+     */
+    private int follow(DepartureIndex idx, int src, int p, int startTime, int minLayover, int maxTime,
+                       int giveUpAt, List<FlightGraph.Flight> flights) {
+        CompactGraph g = idx.graph();
+        int legs = index.data(p);
+        int at = src;
+        int time = startTime;
+        for (int i = 1; i <= legs; i++) {
+            int next = index.data(p + i);
+            int grp = idx.groupOf(at, next);
+            if (grp < 0) return INF;
+            long conn = idx.nextConnection(grp, time + minLayover, maxTime);
+            if (conn == DepartureIndex.NONE) return INF;
+            time = DepartureIndex.arriveOf(conn);
+            if (time >= giveUpAt) return INF;
+            if (flights != null) {
+                flights.add(new FlightGraph.Flight(g.codeOf(at), g.codeOf(next), DepartureIndex.departOf(conn), time));
+            }
+            at = next;
+        }
+        return time;
+    }
+}
@@ -0,0 +1,265 @@
+package com.ada.flightsproject.data;
+
+import com.ada.flightsproject.utility.Utility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses one chunk of FlightPathData-style CSV straight from bytes:
+ *
+ *   Starting_Airport,Destination_Airport,travel_duration_(minutes),departure_time,arrival_time,day_of_flight
+ *   CGK,DPS,250,10:30,14:40,Monday
+ *
+ * No String per field: numbers, times and day names are decoded in place, and airport codes
+ * are looked up in a small chunk-local table keyed on the raw bytes, so a String is created
+ * only the first time a code shows up in the chunk.
+ *
+ * One parser instance per chunk (not thread-safe); chunks are parsed in parallel.
+ */
+final class CsvChunkParser {
+
+    private static final int MINUTES_IN_DAY = Utility.MINUTES_IN_DAY;
+    private static final byte[][] DAY_NAMES = {
+            bytes("MONDAY"), bytes("TUESDAY"), bytes("WEDNESDAY"), bytes("THURSDAY"),
+            bytes("FRIDAY"), bytes("SATURDAY"), bytes("SUNDAY")
+    };
+
+    // ---- output (read by FlightGraphLoader once parse() returns)
+    final List<String> codes = new ArrayList<>();   // chunk-local airport dictionary
+    int[] from = new int[1024];                     // per row: index into codes
+    int[] to = new int[1024];
+    int[] depart = new int[1024];                   // per row: departure minute of the week
+    int[] duration = new int[1024];                 // per row: minutes
+    int rows = 0;
+    int lines = 0;                                  // lines seen in this chunk (for line numbers)
+    final List<Integer> errorLines = new ArrayList<>(); // line index within the chunk, per message
+    final List<String> errorMessages = new ArrayList<>();
+    int errors = 0;
+
+    // ---- airport code table: codes of up to 8 ASCII bytes packed into a long key
+    private long[] tableKeys = new long[256];
+    private int[] tableValues = new int[256];
+    private int tableSize = 0;
+    private final Map<String, Integer> longCodes = new HashMap<>(); // rare: codes longer than 8 bytes
+
+    private final ByteBuffer buf;
+
+    CsvChunkParser(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * @param skipFirstLine true for the chunk that starts with the header row
+     */
+    CsvChunkParser parse(boolean skipFirstLine) {
+        int limit = buf.limit();
+        int pos = buf.position();
+        int[] fieldStart = new int[6];
+        int[] fieldEnd = new int[6];
+
+        while (pos < limit) {
+            // find the end of this line
+            int lineStart = pos;
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') lineEnd++;
+            pos = lineEnd + 1;
+            int lineIndex = lines++;
+
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            if (skipFirstLine && lineIndex == 0) continue;  // header
+            if (isBlank(lineStart, lineEnd)) continue;
+
+            // split into the first 6 fields (anything after that is ignored)
+            int fields = 0;
+            int s = lineStart;
+            for (int i = lineStart; i <= lineEnd && fields < 6; i++) {
+                if (i == lineEnd || buf.get(i) == ',') {
+                    fieldStart[fields] = s;
+                    fieldEnd[fields] = i;
+                    fields++;
+                    s = i + 1;
+                }
+            }
+            if (fields < 6) {
+                error(lineIndex, "expected 6 columns, found " + fields);
+                continue;
+            }
+
+            int fromCode = code(fieldStart[0], fieldEnd[0]);
+            int toCode = code(fieldStart[1], fieldEnd[1]);
+            if (fromCode < 0 || toCode < 0) {
+                error(lineIndex, "missing airport code");
+                continue;
+            }
+            int dur = number(fieldStart[2], fieldEnd[2]);
+            if (dur < 0 || dur > Utility.MINUTES_IN_WEEK) {
+                error(lineIndex, "invalid travel_duration '" + text(fieldStart[2], fieldEnd[2]) + "'");
+                continue;
+            }
+            int time = timeOfDay(fieldStart[3], fieldEnd[3]);
+            if (time < 0) {
+                error(lineIndex, "invalid departure_time '" + text(fieldStart[3], fieldEnd[3]) + "'");
+                continue;
+            }
+            int day = day(fieldStart[5], fieldEnd[5]);
+            if (day < 0) {
+                error(lineIndex, "invalid day_of_flight '" + text(fieldStart[5], fieldEnd[5]) + "'");
+                continue;
+            }
+
+            addRow(fromCode, toCode, day * MINUTES_IN_DAY + time, dur);
+        }
+        return this;
+    }
+
+    private void addRow(int fromCode, int toCode, int dep, int dur) {
+        if (rows == from.length) {
+            int cap = rows * 2;
+            from = Arrays.copyOf(from, cap);
+            to = Arrays.copyOf(to, cap);
+            depart = Arrays.copyOf(depart, cap);
+            duration = Arrays.copyOf(duration, cap);
+        }
+        from[rows] = fromCode;
+        to[rows] = toCode;
+        depart[rows] = dep;
+        duration[rows] = dur;
+        rows++;
+    }
+
+    private void error(int lineIndex, String message) {
+        errors++;
+        if (errorMessages.size() < LoadReport.MAX_MESSAGES) {
+            errorLines.add(lineIndex);
+            errorMessages.add(message);
+        }
+    }
+
+    // ------------------------------------------------------------------ field decoders
+
+    /** Interned airport code index for the trimmed field, or -1 if empty. */
+    private int code(int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+        int len = end - start;
+        if (len == 0) return -1;
+
+        if (len > 8) {
+            return longCodes.computeIfAbsent(text(start, end), c -> {
+                codes.add(c);
+                return codes.size() - 1;
+            });
+        }
+
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            key = (key << 8) | (buf.get(i) & 0xFF);
+        }
+        // open addressing, linear probing; key 0 cannot occur (len > 0, bytes non-zero in CSV text)
+        int mask = tableKeys.length - 1;
+        int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+        while (tableKeys[slot] != 0) {
+            if (tableKeys[slot] == key) return tableValues[slot];
+            slot = (slot + 1) & mask;
+        }
+        int id = codes.size();
+        codes.add(text(start, end));
+        tableKeys[slot] = key;
+        tableValues[slot] = id;
+        if (++tableSize * 2 > tableKeys.length) growTable();
+        return id;
+    }
+
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[] oldValues = tableValues;
+        tableKeys = new long[oldKeys.length * 2];
+        tableValues = new int[oldKeys.length * 2];
+        int mask = tableKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) continue;
+            int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+            while (tableKeys[slot] != 0) slot = (slot + 1) & mask;
+            tableKeys[slot] = key;
+            tableValues[slot] = oldValues[i];
+        }
+    }
+
+    /** Non-negative integer, or -1 if the field is not all digits. */
+    private int number(int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+        if (start == end || end - start > 9) return -1;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /** "H:MM" or "HH:MM" -> minutes since midnight, or -1. */
+    private int timeOfDay(int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+        int colon = -1;
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon < 0 || end - colon != 3) return -1;
+        int hh = number(start, colon);
+        int mm = number(colon + 1, end);
+        if (hh < 0 || hh > 23 || mm < 0 || mm > 59) return -1;
+        return hh * 60 + mm;
+    }
+
+    /** "Monday" / "MON" / "mon" ... -> 0..6, or -1. */
+    private int day(int start, int end) {
+        while (start < end && buf.get(start) == ' ') start++;
+        while (end > start && buf.get(end - 1) == ' ') end--;
+        int len = end - start;
+        if (len < 3) return -1;
+        for (int d = 0; d < DAY_NAMES.length; d++) {
+            byte[] name = DAY_NAMES[d];
+            if (len != 3 && len != name.length) continue;
+            boolean match = true;
+            for (int i = 0; i < len && match; i++) {
+                match = upper(buf.get(start + i)) == name[i];
+            }
+            if (match) return d;
+        }
+        return -1;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) != ' ') return false;
+        }
+        return true;
+    }
+
+    private String text(int start, int end) {
+        byte[] b = new byte[end - start];
+        for (int i = 0; i < b.length; i++) b[i] = buf.get(start + i);
+        return new String(b, StandardCharsets.UTF_8).trim();
+    }
+
+    private static byte upper(byte b) {
+        return (b >= 'a' && b <= 'z') ? (byte) (b - 32) : b;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ada.flightsproject.data;
+
+import com.ada.flightsproject.algorithms.ReachabilityMatrix;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+    Offline step: builds the reachability matrix of a timetable (every origin, every start minute
+    of the week) and exports how well every pair is connected within a travel-time limit.
+
+    args: <output.csv> <hours> [minLayover, default 60] [flights.csv, default the bundled one]
+
+    One row per connected pair: origin,destination,fastest_minutes,start_minutes_within
+    (see ReachabilityMatrix.writeCsv).
+*/
+public class ExportReachability {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: ExportReachability <output.csv> <hours> [minLayover] [flights.csv]");
+            System.exit(2);
+        }
+        Path out = Path.of(args[0]);
+        int maxMinutes = (int) Math.round(Double.parseDouble(args[1]) * 60);
+        int minLayover = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+        FlightGraph graph = new FlightGraph();
+        LoadReport report = (args.length > 3)
+                ? FlightGraphLoader.loadFlights(graph, Path.of(args[3]))
+                : FlightGraphLoader.loadFlights(graph, "/com/ada/flightsproject/data/FlightPathData.csv");
+        System.out.println(report);
+
+        long t0 = System.nanoTime();
+        ReachabilityMatrix matrix = ReachabilityMatrix.build(graph, minLayover);
+        System.out.printf("Built %d connected pairs (%d steps) in %d ms%n",
+                matrix.pairCount(), matrix.stepCount(), (System.nanoTime() - t0) / 1_000_000);
+
+        int rows = matrix.writeCsv(out, maxMinutes);
+        System.out.println("Wrote " + rows + " rows to " + out);
+    }
+}
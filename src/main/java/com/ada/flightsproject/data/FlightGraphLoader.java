@@ -1,46 +1,141 @@
 package com.ada.flightsproject.data;
 
 import com.ada.flightsproject.dataStructures.FlightGraph;
-import com.ada.flightsproject.utility.Utility;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 public class FlightGraphLoader {
 
+    /*
+     * Big inputs are cut into chunks of about this size (on line boundaries)
+     * and the chunks are parsed in parallel.
+     */
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
     /**
      * Loads the CSV file from resources and populates the FlightGraph.
      *
      * @param graph The graph to populate
      * @param resourcePath e.g. "/com/ada/flightsproject/data/FlightPathData.csv"
+     * @return how many rows were loaded / rejected (malformed rows are skipped, not fatal)
      */
-    public static void loadFlights(FlightGraph graph, String resourcePath) {
-        try {
-            InputStream is = FlightGraphLoader.class.getResourceAsStream(resourcePath);
+    public static LoadReport loadFlights(FlightGraph graph, String resourcePath) {
+        try (InputStream is = FlightGraphLoader.class.getResourceAsStream(resourcePath)) {
             if (is == null) {
                 throw new RuntimeException("Could not find resource: " + resourcePath);
             }
+            // Classpath resources may live inside a jar, so they cannot be memory-mapped: read them whole
+            ByteBuffer all = ByteBuffer.wrap(is.readAllBytes());
+            List<ByteBuffer> chunks = new ArrayList<>();
+            int start = 0;
+            while (start < all.limit()) {
+                int end = nextLineStart(all, Math.min(all.limit(), start + CHUNK_SIZE));
+                chunks.add(all.duplicate().position(start).limit(end).slice());
+                start = end;
+            }
+            return load(graph, chunks);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file: " + e.getMessage(), e);
+        }
+    }
 
-            BufferedReader br = new BufferedReader(new InputStreamReader(is));
-            String line = br.readLine(); // skip header
+    /**
+     * Loads a CSV file from disk and populates the FlightGraph.
+     * The file is memory-mapped chunk by chunk, and the chunks are parsed in parallel.
+     *
+     * @param graph The graph to populate
+     * @param csvFile path to a CSV with the same columns as FlightPathData.csv
+     * @return how many rows were loaded / rejected (malformed rows are skipped, not fatal)
+     */
+    public static LoadReport loadFlights(FlightGraph graph, Path csvFile) {
+        try (FileChannel ch = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = ch.size();
+            List<ByteBuffer> chunks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + CHUNK_SIZE);
+                if (end < size) {
+                    end = nextLineStart(ch, end);
+                }
+                chunks.add(ch.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+            // mappings stay valid after the channel is closed
+            return load(graph, chunks);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file: " + e.getMessage(), e);
+        }
+    }
 
-            while ((line = br.readLine()) != null) {
-                String[] cols = line.split(",");
+    /*
+     * Parses all chunks in parallel, then adds the flights to the graph in file order.
+     */
+    private static LoadReport load(FlightGraph graph, List<ByteBuffer> chunks) {
+        List<CsvChunkParser> parsed = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            parsed.add(new CsvChunkParser(chunks.get(i)));
+        }
+        // the first chunk starts with the header row
+        IntStream.range(0, parsed.size()).parallel()
+                .forEach(i -> parsed.get(i).parse(i == 0));
 
-                String start       = cols[0].trim(); // Starting_Airport
-                String dest        = cols[1].trim(); // Destination_Airport
-                int duration       = Integer.parseInt(cols[2].trim()); // travel_duration_(minutes)
-                String depTime     = cols[3].trim(); // departure_time
-                String dayOfFlight = cols[5].trim(); // day_of_flight
+        // Intern every airport code once across all chunks
+        Map<String, String> interned = new HashMap<>();
+        int loaded = 0;
+        int rejected = 0;
+        int lineOffset = 0;
+        List<String> problems = new ArrayList<>();
 
-                graph.addFlightFromCsv(start, dest, dayOfFlight, depTime, duration);
+        for (CsvChunkParser p : parsed) {
+            String[] codes = new String[p.codes.size()];
+            for (int c = 0; c < codes.length; c++) {
+                codes[c] = interned.computeIfAbsent(p.codes.get(c), k -> k);
             }
+            for (int r = 0; r < p.rows; r++) {
+                int dep = p.depart[r];
+                graph.addFlight(codes[p.from[r]], codes[p.to[r]], dep, dep + p.duration[r]);
+            }
+            loaded += p.rows;
+            rejected += p.errors;
+            for (int e = 0; e < p.errorMessages.size() && problems.size() < LoadReport.MAX_MESSAGES; e++) {
+                problems.add("line " + (lineOffset + p.errorLines.get(e) + 1) + ": " + p.errorMessages.get(e));
+            }
+            lineOffset += p.lines;
+        }
+        return new LoadReport(loaded, rejected, problems);
+    }
 
-            br.close();
-        } catch (IOException e) {
-            throw new RuntimeException("Error reading CSV file: " + e.getMessage(), e);
+    /** First position at or after pos that starts a new line (limit if none). */
+    private static int nextLineStart(ByteBuffer buf, int pos) {
+        if (pos == 0) return 0;
+        while (pos < buf.limit() && buf.get(pos - 1) != '\n') pos++;
+        return pos;
+    }
+
+    private static long nextLineStart(FileChannel ch, long pos) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long size = ch.size();
+        // look backwards one byte so a chunk never starts in the middle of a line
+        long at = pos - 1;
+        while (at < size) {
+            probe.clear();
+            int n = ch.read(probe, at);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return at + i + 1;
+            }
+            at += n;
         }
+        return size;
     }
 }
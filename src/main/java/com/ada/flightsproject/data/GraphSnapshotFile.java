@@ -0,0 +1,249 @@
+package com.ada.flightsproject.data;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.ServiceCalendar;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of a built graph, so startup does not have to parse the CSV again.
+ *
+ * Layout (big-endian):
+ *
+ *   int    MAGIC "FGSN"
+ *   int    VERSION
+ *   long   source stamp  (size + last-modified of the CSV it was built from)
+ *   int    airport count n, then n x (short length, UTF-8 bytes)   <- the airport dictionary
+ *   int    edge count m
+ *   int[n] edgeBegin, int[n] edgeEnd                              <- CompactGraph arrays, as-is
+ *   int[m] edgeTo, int[m] edgeDepart, int[m] edgeDuration, int[m] edgeCalendar
+ *   int    calendar count c, then c - 1 x (long first epoch day, int days, days bits as longs)
+ *                                                                 <- ServiceCalendars, id 0 = ALWAYS is implied
+ *   long   CRC32 of everything above
+ *
+ * The file is memory-mapped when read and the int arrays are bulk-copied out of the mapping.
+ * If the file is missing, corrupt (bad magic/version/checksum) or stale (the CSV changed since),
+ * loadOrBuild falls back to the CSV and rewrites the snapshot.
+ */
+public class GraphSnapshotFile {
+
+    private static final int MAGIC = 0x4647534E; // "FGSN"
+    private static final int VERSION = 2; // 2: calendars
+
+    /**
+     * Where the snapshot of the bundled timetable is kept: -Dflights.snapshot=... or the temp directory.
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("flights.snapshot");
+        if (configured != null) return Path.of(configured);
+        return Path.of(System.getProperty("java.io.tmpdir"), "flightsproject", "FlightPathData.fgs");
+    }
+
+    /**
+     * Graph for a bundled CSV resource: from the snapshot if it is up to date, otherwise parsed
+     * from the CSV (and the snapshot rewritten for next time).
+     *
+     * @param snapshot     where the snapshot lives (created if missing)
+     * @param resourcePath e.g. "/com/ada/flightsproject/data/FlightPathData.csv"
+     */
+    public static FlightGraph loadOrBuild(Path snapshot, String resourcePath) {
+        URL url = GraphSnapshotFile.class.getResource(resourcePath);
+        if (url == null) {
+            throw new RuntimeException("Could not find resource: " + resourcePath);
+        }
+        long stamp;
+        try {
+            URLConnection conn = url.openConnection();
+            stamp = stamp(conn.getContentLengthLong(), conn.getLastModified());
+        } catch (IOException e) {
+            stamp = 0; // cannot tell -> always treat the snapshot as stale
+        }
+
+        FlightGraph cached = readIfFresh(snapshot, stamp);
+        if (cached != null) return cached;
+
+        FlightGraph graph = new FlightGraph();
+        report(FlightGraphLoader.loadFlights(graph, resourcePath));
+        if (stamp != 0) writeQuietly(snapshot, graph.compact(), stamp);
+        return graph;
+    }
+
+    /** Same as above for a CSV file on disk. */
+    public static FlightGraph loadOrBuild(Path snapshot, Path csvFile) {
+        long stamp;
+        try {
+            stamp = stamp(Files.size(csvFile), Files.getLastModifiedTime(csvFile).toMillis());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV file: " + e.getMessage(), e);
+        }
+
+        FlightGraph cached = readIfFresh(snapshot, stamp);
+        if (cached != null) return cached;
+
+        FlightGraph graph = new FlightGraph();
+        report(FlightGraphLoader.loadFlights(graph, csvFile));
+        writeQuietly(snapshot, graph.compact(), stamp);
+        return graph;
+    }
+
+    /**
+     * Writes the snapshot (to a temp file first, then renamed, so readers never see half a file).
+     */
+    public static void write(Path snapshot, CompactGraph g, long sourceStamp) throws IOException {
+        Path dir = snapshot.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, snapshot.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(
+                         new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceStamp);
+
+                int n = g.airportCount();
+                out.writeInt(n);
+                for (int u = 0; u < n; u++) {
+                    byte[] code = g.codeOf(u).getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(code.length);
+                    out.write(code);
+                }
+
+                // Edges are written airport by airport, so the file has no gaps even if g has
+                // (see CompactGraph.withEdges); the ranges are renumbered to match.
+                int m = g.edgeCount();
+                out.writeInt(m);
+                int offset = 0;
+                for (int u = 0; u < n; u++) {
+                    out.writeInt(offset);
+                    offset += g.edgeEnd(u) - g.edgeBegin(u);
+                }
+                offset = 0;
+                for (int u = 0; u < n; u++) {
+                    offset += g.edgeEnd(u) - g.edgeBegin(u);
+                    out.writeInt(offset);
+                }
+                for (int u = 0; u < n; u++) {
+                    for (int e = g.edgeBegin(u); e < g.edgeEnd(u); e++) out.writeInt(g.edgeTo(e));
+                }
+                for (int u = 0; u < n; u++) {
+                    for (int e = g.edgeBegin(u); e < g.edgeEnd(u); e++) out.writeInt(g.edgeDepart(e));
+                }
+                for (int u = 0; u < n; u++) {
+                    for (int e = g.edgeBegin(u); e < g.edgeEnd(u); e++) out.writeInt(g.edgeDuration(e));
+                }
+                for (int u = 0; u < n; u++) {
+                    for (int e = g.edgeBegin(u); e < g.edgeEnd(u); e++) out.writeInt(g.edgeCalendar(e));
+                }
+
+                out.writeInt(g.calendarCount());
+                for (int c = 1; c < g.calendarCount(); c++) {
+                    ServiceCalendar cal = g.calendar(c);
+                    out.writeLong(cal.firstDay());
+                    out.writeInt(cal.days());
+                    for (long word : cal.toLongArray()) out.writeLong(word);
+                }
+
+                out.flush();
+                // the checksum itself is not part of the checksum
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a snapshot back.
+     *
+     * @param expectedStamp stamp of the source CSV now; the snapshot must have been built from it
+     * @return the graph, or null if the file is missing, corrupt or stale
+     */
+    public static FlightGraph readIfFresh(Path snapshot, long expectedStamp) {
+        if (!Files.isRegularFile(snapshot)) return null;
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 32 || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // checksum over everything but the trailing 8 bytes
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit((int) size - 8));
+            if (crc.getValue() != buf.getLong((int) size - 8)) return null;
+
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+            if (buf.getLong() != expectedStamp) return null;
+
+            int n = buf.getInt();
+            String[] codes = new String[n];
+            for (int u = 0; u < n; u++) {
+                byte[] code = new byte[buf.getShort()];
+                buf.get(code);
+                codes[u] = new String(code, StandardCharsets.UTF_8);
+            }
+            int m = buf.getInt();
+
+            IntBuffer ints = buf.slice().asIntBuffer();
+            int[] edgeBegin = new int[n];
+            int[] edgeEnd = new int[n];
+            int[] edgeTo = new int[m];
+            int[] edgeDepart = new int[m];
+            int[] edgeDuration = new int[m];
+            int[] edgeCalendar = new int[m];
+            ints.get(edgeBegin).get(edgeEnd).get(edgeTo).get(edgeDepart).get(edgeDuration).get(edgeCalendar);
+            buf.position(buf.position() + 4 * ints.position());
+
+            ServiceCalendar[] calendars = new ServiceCalendar[buf.getInt()];
+            calendars[0] = ServiceCalendar.ALWAYS;
+            for (int c = 1; c < calendars.length; c++) {
+                long firstDay = buf.getLong();
+                int days = buf.getInt();
+                long[] bits = new long[(days + 63) >>> 6];
+                buf.asLongBuffer().get(bits);
+                buf.position(buf.position() + 8 * bits.length);
+                calendars[c] = ServiceCalendar.of(firstDay, days, bits);
+            }
+
+            return FlightGraph.fromCompact(CompactGraph.of(codes, edgeBegin, edgeEnd, edgeTo, edgeDepart, edgeDuration,
+                    edgeCalendar, calendars));
+        } catch (IOException | RuntimeException e) {
+            // unreadable or truncated -> fall back to the CSV
+            return null;
+        }
+    }
+
+    private static long stamp(long size, long lastModified) {
+        return size * 31 + lastModified;
+    }
+
+    private static void writeQuietly(Path snapshot, CompactGraph g, long stamp) {
+        try {
+            write(snapshot, g, stamp);
+        } catch (IOException e) {
+            // Not fatal: we still have the graph, we just parse the CSV again next time
+            System.err.println("Could not write graph snapshot " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    private static void report(LoadReport report) {
+        if (report.hasProblems()) {
+            System.err.println(report + ": " + report.problems);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ada.flightsproject.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What happened during a CSV load: how many flights went in, and which rows were skipped.
+ * Malformed rows do not abort the load; they are listed here instead.
+ */
+public class LoadReport {
+
+    /** Only the first this-many problems are kept as messages (all of them are counted). */
+    public static final int MAX_MESSAGES = 1000;
+
+    public final int rowsLoaded;
+    public final int rowsRejected;
+    public final List<String> problems;   // e.g. "line 57: invalid departure_time '25:99'"
+
+    LoadReport(int rowsLoaded, int rowsRejected, List<String> problems) {
+        this.rowsLoaded = rowsLoaded;
+        this.rowsRejected = rowsRejected;
+        this.problems = Collections.unmodifiableList(problems);
+    }
+
+    public boolean hasProblems() {
+        return rowsRejected > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Loaded " + rowsLoaded + " flights, rejected " + rowsRejected + " rows";
+    }
+}
@@ -0,0 +1,41 @@
+package com.ada.flightsproject.data;
+
+import com.ada.flightsproject.algorithms.TransferPatternIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+    Offline step: builds the transfer-pattern index for a timetable and writes it to disk.
+
+    args: <output.tp> [minLayover, default 60] [flights.csv, default the bundled one]
+
+    Run it again whenever the timetable changes; until then queries notice the index is stale
+    and use the normal search.
+*/
+public class PrecomputeTransferPatterns {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: PrecomputeTransferPatterns <output.tp> [minLayover] [flights.csv]");
+            System.exit(2);
+        }
+        Path out = Path.of(args[0]);
+        int minLayover = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        FlightGraph graph = new FlightGraph();
+        LoadReport report = (args.length > 2)
+                ? FlightGraphLoader.loadFlights(graph, Path.of(args[2]))
+                : FlightGraphLoader.loadFlights(graph, "/com/ada/flightsproject/data/FlightPathData.csv");
+        System.out.println(report);
+
+        long t0 = System.nanoTime();
+        TransferPatternIndex index = TransferPatternIndex.build(graph, minLayover);
+        System.out.printf("Built %d (source, target) pairs in %d ms%n",
+                index.pairCount(), (System.nanoTime() - t0) / 1_000_000);
+
+        TransferPatternFile.write(out, index);
+        System.out.println("Wrote " + out);
+    }
+}
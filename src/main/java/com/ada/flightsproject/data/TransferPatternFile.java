@@ -0,0 +1,108 @@
+package com.ada.flightsproject.data;
+
+import com.ada.flightsproject.algorithms.TransferPatternIndex;
+
+import java.io.*;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A TransferPatternIndex on disk, kept next to the graph snapshot (see GraphSnapshotFile).
+ *
+ * Layout (big-endian):
+ *
+ *   int    MAGIC "FGTP"
+ *   int    VERSION
+ *   long   fingerprint of the timetable it was built for
+ *   int    minLayover it was built for
+ *   int    airports n, int pairs p, int data length d
+ *   int[n + 1] sourcePairBegin, int[p] pairTarget, int[p + 1] pairDataBegin, int[d] pattern data
+ *   long   CRC32 of everything above
+ *
+ * read() only checks that the file is intact; whether it fits the timetable being served is up
+ * to TransferPatternSearch (it compares the fingerprint and falls back if it does not).
+ */
+public class TransferPatternFile {
+
+    private static final int MAGIC = 0x46475450; // "FGTP"
+    private static final int VERSION = 1;
+
+    /**
+     * Where the index is looked for at startup: -Dflights.patterns=... or next to the graph snapshot.
+     */
+    public static Path defaultPath() {
+        String configured = System.getProperty("flights.patterns");
+        if (configured != null) return Path.of(configured);
+        return GraphSnapshotFile.defaultPath().resolveSibling("FlightPathData.tp");
+    }
+
+    public static void write(Path file, TransferPatternIndex index) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream os = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(
+                         new CheckedOutputStream(new BufferedOutputStream(os, 1 << 16), crc))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(index.graphFingerprint());
+                out.writeInt(index.minLayover());
+                out.writeInt(index.airportCount());
+                out.writeInt(index.pairCount());
+                out.writeInt(index.patternData().length);
+                for (int x : index.sourcePairBegin()) out.writeInt(x);
+                for (int x : index.pairTarget()) out.writeInt(x);
+                for (int x : index.pairDataBegin()) out.writeInt(x);
+                for (int x : index.patternData()) out.writeInt(x);
+                out.flush();
+                new DataOutputStream(os).writeLong(crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return the index, or null if the file is missing or damaged
+     */
+    public static TransferPatternIndex read(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 40 || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit((int) size - 8));
+            if (crc.getValue() != buf.getLong((int) size - 8)) return null;
+
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+            long fingerprint = buf.getLong();
+            int minLayover = buf.getInt();
+            int n = buf.getInt();
+            int pairs = buf.getInt();
+            int dataLength = buf.getInt();
+
+            IntBuffer ints = buf.slice().asIntBuffer();
+            int[] sourcePairBegin = new int[n + 1];
+            int[] pairTarget = new int[pairs];
+            int[] pairDataBegin = new int[pairs + 1];
+            int[] data = new int[dataLength];
+            ints.get(sourcePairBegin).get(pairTarget).get(pairDataBegin).get(data);
+
+            return TransferPatternIndex.of(fingerprint, minLayover, sourcePairBegin, pairTarget, pairDataBegin, data);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ada.flightsproject.dataStructures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a one-to-all search: the earliest arrival at EVERY airport from one source and start
+ * time, plus the flight we took into each airport.
+ *
+ * The predecessors form a tree rooted at the source, so the path to any destination can be
+ * pulled out afterwards without searching again:
+ *
+ *   KUL ──> SIN ──> NRT
+ *    │       └────> SYD
+ *    └────> HKG ──> KIX
+ */
+public final class ArrivalTree {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+    private final String source;
+    private final int startTime;
+
+    private final int[] arrival;      // per airport id: earliest arrival (INF = unreachable)
+    private final int[] prevAirport;  // per airport id: where the last flight came from
+    private final int[] prevDepart;   // per airport id: departure time of that flight occurrence
+
+    /**
+     * Arrays are taken over as-is (not copied); callers hand in fresh arrays.
+     */
+    public ArrivalTree(CompactGraph graph, String source, int startTime,
+                       int[] arrival, int[] prevAirport, int[] prevDepart) {
+        this.graph = graph;
+        this.source = source;
+        this.startTime = startTime;
+        this.arrival = arrival;
+        this.prevAirport = prevAirport;
+        this.prevDepart = prevDepart;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public int startTime() {
+        return startTime;
+    }
+
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * @return earliest arrival at the airport in week-minutes, or Integer.MAX_VALUE if unreachable
+     */
+    public int arrivalAt(String airport) {
+        if (airport.equals(source)) return startTime;
+        int id = graph.idOf(airport);
+        return id < 0 ? INF : arrival[id];
+    }
+
+    /** Same as arrivalAt, by airport id. */
+    public int arrivalAt(int airport) {
+        return arrival[airport];
+    }
+
+    /** Airport id we flew in from (only meaningful when the airport is reachable and not the source). */
+    public int prevAirport(int airport) {
+        return prevAirport[airport];
+    }
+
+    /** Departure time of the flight we flew in on (same caveat as prevAirport). */
+    public int prevDepart(int airport) {
+        return prevDepart[airport];
+    }
+
+    public boolean reaches(String airport) {
+        return arrivalAt(airport) != INF;
+    }
+
+    /** Number of airports reachable within the window, not counting the source itself. */
+    public int reachableCount() {
+        int src = graph.idOf(source);
+        int count = 0;
+        for (int v = 0; v < arrival.length; v++) {
+            if (v != src && arrival[v] != INF) count++;
+        }
+        return count;
+    }
+
+    /**
+     * The same Result that earliestArrival(source, target, startTime, minLayover) would give,
+     * read off the tree.
+     */
+    public FlightGraph.Result resultTo(String target) {
+        if (target.equals(source)) {
+            return new FlightGraph.Result(List.of(source), Collections.emptyList(), startTime);
+        }
+        int dst = graph.idOf(target);
+        if (dst < 0 || arrival[dst] == INF) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), INF);
+        }
+        return buildResult(graph, graph.idOf(source), dst, arrival, prevAirport, prevDepart);
+    }
+
+    /**
+     * Walks the predecessor arrays back from dst to src and turns them into a Result.
+     * Shared by the searches so every engine reconstructs paths the same way.
+     */
+    static FlightGraph.Result buildResult(CompactGraph g, int src, int dst,
+                                          int[] arrival, int[] prevAirport, int[] prevDepart) {
+        List<String> airportPath = new ArrayList<>();
+        List<FlightGraph.Flight> usedFlights = new ArrayList<>();
+        int cur = dst;
+        airportPath.add(g.codeOf(cur));
+        while (cur != src) {
+            int from = prevAirport[cur];
+            usedFlights.add(new FlightGraph.Flight(g.codeOf(from), g.codeOf(cur), prevDepart[cur], arrival[cur]));
+            airportPath.add(g.codeOf(from));
+            cur = from;
+        }
+        Collections.reverse(airportPath);
+        Collections.reverse(usedFlights);
+
+        return new FlightGraph.Result(airportPath, usedFlights, arrival[dst]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ada.flightsproject.dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * All distinct ServiceCalendars of a graph, re-laid over one common date range so the search
+ * can test "does calendar c run on day d" with one array read and one bit test.
+ *
+ *   id 0 = ALWAYS (no bits needed)
+ *   first day = earliest date of any calendar, stride = longs per calendar
+ *
+ *   bits: [ cal 1: w0 w1 ... w5 | cal 2: w0 w1 ... w5 | ... ]
+ *
+ * Shared by every version of a graph (deltas do not add calendars).
+ */
+final class CalendarTable {
+
+    /** Table with only ALWAYS, for graphs without dates. */
+    static final CalendarTable ALWAYS_ONLY = new CalendarTable(new ServiceCalendar[] {ServiceCalendar.ALWAYS});
+
+    private final ServiceCalendar[] calendars; // id -> calendar, [0] is ALWAYS
+    private final long firstDay;
+    private final int days;
+    private final int stride;
+    private final long[] bits;
+
+    CalendarTable(ServiceCalendar[] calendars) {
+        if (calendars.length == 0 || !calendars[0].isAlways()) {
+            throw new IllegalArgumentException("Calendar 0 must be ALWAYS");
+        }
+        this.calendars = calendars;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int c = 1; c < calendars.length; c++) {
+            first = Math.min(first, calendars[c].firstDay());
+            last = Math.max(last, calendars[c].firstDay() + calendars[c].days() - 1);
+        }
+        if (calendars.length == 1) {
+            first = 0;
+            last = -1;
+        }
+        this.firstDay = first;
+        this.days = (int) (last - first + 1);
+        this.stride = (days + 63) >>> 6;
+        this.bits = new long[calendars.length * stride];
+        for (int c = 1; c < calendars.length; c++) {
+            for (int d = 0; d < days; d++) {
+                if (calendars[c].runsOn(first + d)) bits[c * stride + (d >>> 6)] |= 1L << d;
+            }
+        }
+    }
+
+    /**
+     * @param calendar calendar id (see CompactGraph.edgeCalendar)
+     * @param epochDay LocalDate.toEpochDay() of the departure date
+     */
+    boolean runs(int calendar, long epochDay) {
+        if (calendar == 0) return true;
+        long d = epochDay - firstDay;
+        return d >= 0 && d < days && (bits[calendar * stride + (int) (d >>> 6)] >>> d & 1) != 0;
+    }
+
+    int size() {
+        return calendars.length;
+    }
+
+    ServiceCalendar get(int id) {
+        return calendars[id];
+    }
+
+    ServiceCalendar[] toArray() {
+        return Arrays.copyOf(calendars, calendars.length);
+    }
+}
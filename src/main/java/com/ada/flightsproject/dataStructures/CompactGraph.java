@@ -0,0 +1,302 @@
+package com.ada.flightsproject.dataStructures;
+
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.*;
+
+/**
+ * Frozen, array-backed copy of a FlightGraph that the searches run over.
+ *
+ * Airport codes are interned to dense int ids (0..airportCount-1, in sorted code order),
+ * and every outgoing flight is packed into parallel int arrays:
+ *
+ *   airport id   0 (CGK)      1 (DPS)   2 (SIN)
+ *   edgeBegin    0            3         4
+ *   edgeEnd      3            4         6
+ *                |-----------||--------||---------|
+ *   edgeTo       [ 2, 1, 4,    5,        0, 3, ... ]
+ *   edgeDepart   [ ... minute of the week, 0..10079 ... ]
+ *   edgeDuration [ ... minutes in the air ... ]
+ *   edgeCalendar [ ... 0 = every week, else an id into the graph's ServiceCalendars ... ]
+ *
+ * So "all flights out of airport u" is just the index range [edgeBegin(u), edgeEnd(u)),
+ * no hashing and no Flight objects on the query path.
+ *
+ * A CompactGraph never changes. withEdges makes a new version that only rewrites the changed
+ * airports' edges (appended behind the used part of the shared arrays, see IntColumns), so edge
+ * indices are not necessarily contiguous: always go through an airport's range.
+ */
+public final class CompactGraph {
+
+    private final String[] codes;               // id -> "CGK"
+    private final Map<String, Integer> ids;     // "CGK" -> id (only used to translate query inputs)
+
+    private final int[] edgeBegin;              // per airport: first edge index
+    private final int[] edgeEnd;                // per airport: one past the last edge index
+
+    private final int[] edgeTo;                 // per edge: destination airport id
+    private final int[] edgeDepart;             // per edge: departure minute within the week (0..WEEK-1)
+    private final int[] edgeDuration;           // per edge: flight duration in minutes
+    private final int[] edgeCalendar;           // per edge: calendar id, 0 = ALWAYS
+
+    private final IntColumns edges;             // edgeTo, edgeDepart, edgeDuration, edgeCalendar, shared between versions
+    private final int edgeCount;                // edges in use by this version
+    private final CalendarTable calendars;      // calendar id -> dates, shared between versions
+
+    private CompactGraph(String[] codes, Map<String, Integer> ids, int[] edgeBegin, int[] edgeEnd,
+                         IntColumns edges, int edgeCount, CalendarTable calendars) {
+        this.codes = codes;
+        this.ids = ids;
+        this.edgeBegin = edgeBegin;
+        this.edgeEnd = edgeEnd;
+        this.edgeTo = edges.columns[0];
+        this.edgeDepart = edges.columns[1];
+        this.edgeDuration = edges.columns[2];
+        this.edgeCalendar = edges.columns[3];
+        this.edges = edges;
+        this.edgeCount = edgeCount;
+        this.calendars = calendars;
+    }
+
+    private static Map<String, Integer> idsOf(String[] codes) {
+        Map<String, Integer> ids = new HashMap<>(codes.length * 2);
+        for (int i = 0; i < codes.length; i++) {
+            ids.put(codes[i], i);
+        }
+        return ids;
+    }
+
+    /**
+     * Wraps already-packed arrays (e.g. read back from a binary snapshot) without copying them.
+     * The arrays must follow the layout described above and must not be modified afterwards.
+     */
+    public static CompactGraph of(String[] codes, int[] edgeBegin, int[] edgeEnd,
+                                  int[] edgeTo, int[] edgeDepart, int[] edgeDuration) {
+        return of(codes, edgeBegin, edgeEnd, edgeTo, edgeDepart, edgeDuration,
+                new int[edgeTo.length], new ServiceCalendar[] {ServiceCalendar.ALWAYS});
+    }
+
+    /**
+     * Same, with dates: edgeCalendar[e] is an index into calendars, and calendars[0] must be ALWAYS.
+     */
+    public static CompactGraph of(String[] codes, int[] edgeBegin, int[] edgeEnd,
+                                  int[] edgeTo, int[] edgeDepart, int[] edgeDuration,
+                                  int[] edgeCalendar, ServiceCalendar[] calendars) {
+        CalendarTable table = calendars.length == 1 ? CalendarTable.ALWAYS_ONLY : new CalendarTable(calendars);
+        for (int c : edgeCalendar) {
+            if (c < 0 || c >= table.size()) throw new IllegalArgumentException("Unknown calendar id " + c);
+        }
+        return new CompactGraph(codes, idsOf(codes), edgeBegin, edgeEnd,
+                new IntColumns(new int[][] {edgeTo, edgeDepart, edgeDuration, edgeCalendar}, edgeTo.length),
+                edgeTo.length, table);
+    }
+
+    /**
+     * Packs the builder's "airport -> list of flights" map into the array form.
+     * Every airport that appears as an origin OR a destination gets an id.
+     */
+    static CompactGraph build(Map<String, List<FlightGraph.Flight>> flightsFrom) {
+        final int WEEK = Utility.MINUTES_IN_WEEK;
+
+        // 1. Intern all airport codes (sorted, so ids are stable for the same data)
+        TreeSet<String> airportSet = new TreeSet<>(flightsFrom.keySet());
+        int totalEdges = 0;
+        for (List<FlightGraph.Flight> list : flightsFrom.values()) {
+            for (FlightGraph.Flight f : list) {
+                airportSet.add(f.to);
+            }
+            totalEdges += list.size();
+        }
+        String[] codes = airportSet.toArray(new String[0]);
+        Map<String, Integer> ids = idsOf(codes);
+
+        // 2. Lay the edges out airport by airport
+        int[] edgeBegin = new int[codes.length];
+        int[] edgeEnd = new int[codes.length];
+        int[] edgeTo = new int[totalEdges];
+        int[] edgeDepart = new int[totalEdges];
+        int[] edgeDuration = new int[totalEdges];
+        int[] edgeCalendar = new int[totalEdges];
+
+        // Distinct calendars get ids in order of appearance, ALWAYS is 0
+        Map<ServiceCalendar, Integer> calendarIds = new LinkedHashMap<>();
+        calendarIds.put(ServiceCalendar.ALWAYS, 0);
+
+        int e = 0;
+        for (int u = 0; u < codes.length; u++) {
+            edgeBegin[u] = e;
+            List<FlightGraph.Flight> outgoing = flightsFrom.getOrDefault(codes[u], Collections.emptyList());
+            for (FlightGraph.Flight f : outgoing) {
+                edgeTo[e] = ids.get(f.to);
+                edgeDepart[e] = f.depart % WEEK;
+                edgeDuration[e] = f.arrive - f.depart;
+                edgeCalendar[e] = calendarIds.computeIfAbsent(f.calendar, c -> calendarIds.size());
+                e++;
+            }
+            edgeEnd[u] = e;
+        }
+
+        CalendarTable calendars = calendarIds.size() == 1 ? CalendarTable.ALWAYS_ONLY
+                : new CalendarTable(calendarIds.keySet().toArray(new ServiceCalendar[0]));
+        return new CompactGraph(codes, ids, edgeBegin, edgeEnd,
+                new IntColumns(new int[][] {edgeTo, edgeDepart, edgeDuration, edgeCalendar}, totalEdges),
+                totalEdges, calendars);
+    }
+
+    /**
+     * New version of this graph in which some airports have a new list of outgoing edges.
+     * Only those edges are written; the rest, including the edge arrays, is shared with this version,
+     * which stays valid and unchanged.
+     *
+     *   changed = { KUL -> [ (SIN, Mon 08:00, 65), (SIN, Mon 18:00, 65) ] }
+     *
+     *   this:   KUL [0, 3)   SIN [3, 5)
+     *   result: KUL [5, 7)   SIN [3, 5)
+     *
+     * If the arrays have no room left, the live edges are copied into bigger ones first
+     * (which also drops the ranges no version of the result can see any more).
+     *
+     * @param addedCodes airports that are not in this graph yet; they get the next ids (n, n+1, ...)
+     * @param changed    airport id -> its complete new list of edges as (to, depart, duration, calendar)
+     *                   quadruples; calendar ids must be ones this graph already has
+     */
+    CompactGraph withEdges(List<String> addedCodes, Map<Integer, int[]> changed) {
+        int n = codes.length + addedCodes.size();
+        String[] newCodes = Arrays.copyOf(codes, n);
+        Map<String, Integer> newIds = ids; // never modified, so it can be shared
+        if (!addedCodes.isEmpty()) {
+            newIds = new HashMap<>(ids);
+            for (int i = codes.length; i < n; i++) {
+                newCodes[i] = addedCodes.get(i - codes.length);
+                newIds.put(newCodes[i], i);
+            }
+        }
+        int[] begin = Arrays.copyOf(edgeBegin, n);
+        int[] end = Arrays.copyOf(edgeEnd, n);
+
+        int rows = 0;
+        int live = edgeCount;
+        for (Map.Entry<Integer, int[]> c : changed.entrySet()) {
+            int u = c.getKey();
+            int k = c.getValue().length / 4;
+            rows += k;
+            live += k - (end[u] - begin[u]);
+        }
+
+        IntColumns store = edges;
+        int at = store.claim(rows);
+        if (at < 0) {
+            // Out of room: move the unchanged airports' edges into fresh arrays twice the size
+            store = IntColumns.allocate(4, 2 * live + 16);
+            int w = store.claim(live - rows);
+            for (int u = 0; u < n; u++) {
+                if (changed.containsKey(u)) continue;
+                int k = end[u] - begin[u];
+                System.arraycopy(edgeTo, begin[u], store.columns[0], w, k);
+                System.arraycopy(edgeDepart, begin[u], store.columns[1], w, k);
+                System.arraycopy(edgeDuration, begin[u], store.columns[2], w, k);
+                System.arraycopy(edgeCalendar, begin[u], store.columns[3], w, k);
+                begin[u] = w;
+                w += k;
+                end[u] = w;
+            }
+            at = store.claim(rows);
+        }
+
+        for (Map.Entry<Integer, int[]> c : changed.entrySet()) {
+            int u = c.getKey();
+            int[] list = c.getValue();
+            begin[u] = at;
+            for (int i = 0; i < list.length; i += 4) {
+                store.columns[0][at] = list[i];
+                store.columns[1][at] = list[i + 1];
+                store.columns[2][at] = list[i + 2];
+                store.columns[3][at] = list[i + 3];
+                at++;
+            }
+            end[u] = at;
+        }
+        return new CompactGraph(newCodes, newIds, begin, end, store, live, calendars);
+    }
+
+    public int airportCount() {
+        return codes.length;
+    }
+
+    /** Number of edges (flights) in this version. */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * One past the highest edge index any airport range of this version can contain.
+     * Equal to edgeCount() for a freshly built graph; larger after withEdges left gaps.
+     * Use it to size arrays that are indexed by edge.
+     */
+    public int edgeIndexLimit() {
+        return edgeTo.length;
+    }
+
+    /**
+     * @return the dense id of an airport code, or -1 if the airport is not in the graph
+     */
+    public int idOf(String code) {
+        Integer id = ids.get(code);
+        return id == null ? -1 : id;
+    }
+
+    public String codeOf(int airport) {
+        return codes[airport];
+    }
+
+    /**
+     * All airport codes, indexed by id. Sorted, except that airports added by withEdges
+     * come after the original ones.
+     */
+    public List<String> airports() {
+        return Collections.unmodifiableList(Arrays.asList(codes));
+    }
+
+    public int edgeBegin(int airport) {
+        return edgeBegin[airport];
+    }
+
+    public int edgeEnd(int airport) {
+        return edgeEnd[airport];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    public int edgeDepart(int edge) {
+        return edgeDepart[edge];
+    }
+
+    public int edgeDuration(int edge) {
+        return edgeDuration[edge];
+    }
+
+    /** Calendar id of an edge: 0 = runs every week (ServiceCalendar.ALWAYS). */
+    public int edgeCalendar(int edge) {
+        return edgeCalendar[edge];
+    }
+
+    /** Number of distinct calendars, ALWAYS included (1 = a purely weekly timetable). */
+    public int calendarCount() {
+        return calendars.size();
+    }
+
+    public ServiceCalendar calendar(int id) {
+        return calendars.get(id);
+    }
+
+    /**
+     * Does a flight with this calendar id operate on the given date? One bit test (see CalendarTable).
+     *
+     * @param epochDay LocalDate.toEpochDay() of the departure date
+     */
+    public boolean runs(int calendar, long epochDay) {
+        return calendars.runs(calendar, epochDay);
+    }
+}
@@ -0,0 +1,589 @@
+package com.ada.flightsproject.dataStructures;
+
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.Arrays;
+
+/**
+ * Search index over a CompactGraph: every airport's departures grouped per destination
+ * and sorted by departure minute of the week.
+ *
+ *   KUL -> group(SIN): dep [ Mon 08:00, Mon 18:00, Tue 08:00, ... ]
+ *          group(NRT): dep [ Wed 23:30, Sat 23:30 ]
+ *
+ * Within a group only the first flight we can still catch can matter, so instead of looking at
+ * every flight out of an airport the search does one binary search per destination.
+ *
+ * To make "first catchable = earliest arrival" actually true, flights that are dominated
+ * (some other flight on the same route leaves at the same time or later and still lands earlier)
+ * are dropped while building. What is left is FIFO: later departure -> later arrival.
+ *
+ * Dated flights (a ServiceCalendar other than ALWAYS) complicate that: on a day the dominating
+ * flight does not run, the dominated one may be the best choice. So only ALWAYS flights dominate,
+ * and a group that still has dated flights in it is marked; there nextConnection scans forward
+ * from the first catchable flight until departures get later than the best arrival found:
+ *
+ *   KUL -> SIN:  08:00 (ALWAYS) -> 09:05      08:30 (summer) -> 09:35      09:00 (ALWAYS) -> 10:05
+ *   board from 07:50 in winter: 08:00 arr 09:05, 08:30 not running, 09:00 >= 09:05? no -> arr 10:05,
+ *                               stop at the next departure after 09:05            => 08:00
+ *
+ * Groups without dated flights (all of them in a weekly timetable) keep the single binary search.
+ *
+ * Most real routes fly at the same time on several weekdays, which the timetable lists as one
+ * flight per day. Such groups are stored once per (time of day, duration, calendar), with a
+ * weekday mask, as long as that makes the group smaller:
+ *
+ *   KUL -> SIN  weekly:      Mon 08:00, Tue 08:00, Wed 08:00, Thu 08:00, Fri 08:00, Sat 08:00, Sun 08:00, Sat 14:00
+ *               by weekday:  08:00 [MTWTFSS], 14:00 [.....S.]                  (8 entries -> 2)
+ *
+ * nextConnection then finds each entry's next running day straight from its mask and takes the
+ * earliest; there are only a handful of entries per route once the repeats are folded.
+ */
+public final class DepartureIndex {
+
+    /** Returned by nextConnection when no flight of the group can be caught in time. */
+    public static final long NONE = -1L;
+
+    /** weekStartDay for undated queries: every flight runs every week. */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+    private static final int DAY = Utility.MINUTES_IN_DAY;
+
+    // groupFlags bits
+    private static final int DATED = 1;       // has flights with a calendar: not FIFO, scan (see scanDated)
+    private static final int BY_WEEKDAY = 2;  // entries are (time of day, weekday mask), see nextByWeekday
+
+    private final CompactGraph graph;       // the graph this index was built from
+
+    private final int[] airportGroupBegin;  // per airport: first group index
+    private final int[] airportGroupEnd;    // per airport: one past the last group index
+
+    private final int[] groupTo;            // per group: destination airport id
+    private final int[] groupBegin;         // per group: first entry index
+    private final int[] groupEnd;           // per group: one past the last entry index
+    private final int[] groupFlags;         // per group: DATED and/or BY_WEEKDAY
+
+    private final int[] depart;             // per entry: departure minute within the week (BY_WEEKDAY: within
+                                            // the day), sorted per group
+    private final int[] duration;           // per entry: flight duration in minutes
+    private final int[] calendar;           // per entry: calendar id (see CompactGraph.runs), 0 = ALWAYS
+    private final int[] weekdays;           // per entry of a BY_WEEKDAY group: bit 0 = Monday ... bit 6 = Sunday
+
+    private final int[] airportDepartBegin; // per airport: range in departureTimes
+    private final int[] airportDepartEnd;
+    private final int[] departureTimes;     // all distinct departure minutes of an airport, sorted
+
+    /*
+     * The arrays above live in these append-only columns, shared with older/newer versions
+     * of the index (see IntColumns and withChanges).
+     */
+    private final IntColumns groups;        // groupTo, groupBegin, groupEnd, groupFlags
+    private final IntColumns entries;       // depart, duration, calendar, weekdays
+    private final IntColumns times;         // departureTimes
+    private final int groupCount;           // groups / entries in use by this version
+    private final int entryCount;
+
+    private DepartureIndex(CompactGraph graph, int[] airportGroupBegin, int[] airportGroupEnd,
+                           int[] airportDepartBegin, int[] airportDepartEnd,
+                           IntColumns groups, IntColumns entries, IntColumns times,
+                           int groupCount, int entryCount) {
+        this.graph = graph;
+        this.airportGroupBegin = airportGroupBegin;
+        this.airportGroupEnd = airportGroupEnd;
+        this.groupTo = groups.columns[0];
+        this.groupBegin = groups.columns[1];
+        this.groupEnd = groups.columns[2];
+        this.groupFlags = groups.columns[3];
+        this.depart = entries.columns[0];
+        this.duration = entries.columns[1];
+        this.calendar = entries.columns[2];
+        this.weekdays = entries.columns[3];
+        this.airportDepartBegin = airportDepartBegin;
+        this.airportDepartEnd = airportDepartEnd;
+        this.departureTimes = times.columns[0];
+        this.groups = groups;
+        this.entries = entries;
+        this.times = times;
+        this.groupCount = groupCount;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Builds the index once, after loading.
+     */
+    public static DepartureIndex build(CompactGraph g) {
+        return build(g, false);
+    }
+
+    /*
+     * Full build. The columns are always left with some free room behind the used rows, so the
+     * first withChanges calls can append instead of rebuilding; with spare = true (rebuild after
+     * the room ran out) there is as much room again as there are flights.
+     */
+    private static DepartureIndex build(CompactGraph g, boolean spare) {
+        int n = g.airportCount();
+        int m = g.edgeCount();
+        int[] airportGroupBegin = new int[n];
+        int[] airportGroupEnd = new int[n];
+        int[] airportDepartBegin = new int[n];
+        int[] airportDepartEnd = new int[n];
+
+        // Upper bounds: at most one group, one entry and one distinct departure per edge
+        int capacity = spare ? 2 * m + 16 : m;
+        IntColumns groups = IntColumns.allocate(4, capacity);
+        IntColumns entries = IntColumns.allocate(4, capacity);
+        IntColumns times = IntColumns.allocate(1, capacity);
+
+        int groupCount = 0;
+        int entryCount = 0;
+        for (int u = 0; u < n; u++) {
+            AirportRows rows = rowsOf(g, u);
+            place(rows, u, groups, entries, times,
+                    airportGroupBegin, airportGroupEnd, airportDepartBegin, airportDepartEnd);
+            groupCount += rows.groupTo.length;
+            entryCount += rows.depart.length;
+        }
+
+        if (!spare) {
+            // Trim to what is actually used (pruning and folding leave far less than one row per
+            // edge), plus a quarter for the airports later deltas re-pack
+            groups = trimWithRoom(groups);
+            entries = trimWithRoom(entries);
+            times = trimWithRoom(times);
+        }
+        return new DepartureIndex(g, airportGroupBegin, airportGroupEnd, airportDepartBegin, airportDepartEnd,
+                groups, entries, times, groupCount, entryCount);
+    }
+
+    /**
+     * New version of the index for a graph that differs from this one only in the outgoing flights
+     * of the given airports (see CompactGraph.withEdges). Only those airports are re-indexed;
+     * their rows are appended to the shared columns and everything else is reused as-is,
+     * so this version stays valid and unchanged for whoever is still searching on it.
+     *
+     * Once the free room behind the columns is used up (after a quarter of the index has been
+     * re-packed), the next call indexes the whole graph again, into columns with room for as
+     * many rows again.
+     *
+     * @param g       the new graph (airport ids of this graph must mean the same in g)
+     * @param changed ids of the airports whose outgoing flights changed
+     */
+    public DepartureIndex withChanges(CompactGraph g, int[] changed) {
+        int n = g.airportCount();
+        // Airports that are new in g start out with empty ranges
+        int[] airportGroupBegin = Arrays.copyOf(this.airportGroupBegin, n);
+        int[] airportGroupEnd = Arrays.copyOf(this.airportGroupEnd, n);
+        int[] airportDepartBegin = Arrays.copyOf(this.airportDepartBegin, n);
+        int[] airportDepartEnd = Arrays.copyOf(this.airportDepartEnd, n);
+
+        int newGroupCount = groupCount;
+        int newEntryCount = entryCount;
+        for (int u : changed) {
+            AirportRows rows = rowsOf(g, u);
+            int oldGroups = airportGroupEnd[u] - airportGroupBegin[u];
+            int oldEntries = 0;
+            for (int grp = airportGroupBegin[u]; grp < airportGroupEnd[u]; grp++) {
+                oldEntries += groupEnd[grp] - groupBegin[grp];
+            }
+            if (!place(rows, u, groups, entries, times,
+                    airportGroupBegin, airportGroupEnd, airportDepartBegin, airportDepartEnd)) {
+                // Columns are full: start over with fresh ones that have room for more changes
+                return build(g, true);
+            }
+            newGroupCount += rows.groupTo.length - oldGroups;
+            newEntryCount += rows.depart.length - oldEntries;
+        }
+        return new DepartureIndex(g, airportGroupBegin, airportGroupEnd, airportDepartBegin, airportDepartEnd,
+                groups, entries, times, newGroupCount, newEntryCount);
+    }
+
+    /*
+     * Everything the index holds for one airport, before it is copied into the shared columns.
+     */
+    private static final class AirportRows {
+        final int[] groupTo;        // per group: destination
+        final int[] groupSize;      // per group: number of entries
+        final int[] groupFlags;     // per group: DATED / BY_WEEKDAY
+        final int[] depart;         // entries of all groups, one group after the other
+        final int[] duration;
+        final int[] calendar;
+        final int[] weekdays;
+        final int[] departureTimes; // distinct, sorted
+
+        AirportRows(int[] groupTo, int[] groupSize, int[] groupFlags,
+                    int[] depart, int[] duration, int[] calendar, int[] weekdays, int[] departureTimes) {
+            this.groupTo = groupTo;
+            this.groupSize = groupSize;
+            this.groupFlags = groupFlags;
+            this.depart = depart;
+            this.duration = duration;
+            this.calendar = calendar;
+            this.weekdays = weekdays;
+            this.departureTimes = departureTimes;
+        }
+    }
+
+    /*
+     * Groups, prunes and sorts the outgoing flights of airport u.
+     */
+    private static AirportRows rowsOf(CompactGraph g, int u) {
+        // Sort u's edges by (destination, departure asc, duration desc).
+        // Packed into longs so these are primitive sorts: first rank the edges by duration desc,
+        // then sort (destination, departure, rank); the rank also leads back to the edge.
+        // (20 bits each for departure and rank: fine up to a million flights out of one airport.)
+        int begin = g.edgeBegin(u);
+        int count = g.edgeEnd(u) - begin;
+        long[] byDuration = new long[count];
+        for (int i = 0; i < count; i++) {
+            byDuration[i] = ((long) (0xFFFFF - g.edgeDuration(begin + i)) << 32) | i;
+        }
+        Arrays.sort(byDuration);
+        long[] keys = new long[count];
+        for (int r = 0; r < count; r++) {
+            int e = begin + (int) byDuration[r];
+            keys[r] = ((long) g.edgeTo(e) << 40) | ((long) g.edgeDepart(e) << 20) | r;
+        }
+        Arrays.sort(keys);
+
+        int[] groupTo = new int[count];
+        int[] groupSize = new int[count];
+        int[] groupFlags = new int[count];
+        int[] depart = new int[count];
+        int[] duration = new int[count];
+        int[] calendar = new int[count];
+        int[] weekdays = new int[count];
+        int[] allDepartures = new int[count]; // week minutes of every kept flight, for departureTimes
+        boolean[] keep = new boolean[count];
+        int groups = 0;
+        int entries = 0;
+        int kept = 0;
+
+        int i = 0;
+        while (i < count) {
+            int to = (int) (keys[i] >>> 40);
+            int j = i;
+            while (j < count && (int) (keys[j] >>> 40) == to) j++;
+
+            // Group [i, j) = all flights u -> to
+            int k = j - i;
+            int[] dep = new int[k];
+            int[] dur = new int[k];
+            int[] cal = new int[k];
+            for (int x = 0; x < k; x++) {
+                int e = begin + (int) byDuration[(int) (keys[i + x] & 0xFFFFF)];
+                dep[x] = g.edgeDepart(e);
+                dur[x] = g.edgeDuration(e);
+                cal[x] = g.edgeCalendar(e);
+            }
+
+            // Drop dominated flights. Walk the group backwards over two weekly cycles,
+            // remembering the earliest arrival of any ALWAYS flight that leaves later.
+            // A flight is kept only if it lands strictly earlier than all of those.
+            int minArr = Integer.MAX_VALUE;
+            for (int x = 2 * k - 1; x >= 0; x--) {
+                int idx = x % k;
+                int arr = dep[idx] + dur[idx] + (x >= k ? WEEK : 0);
+                if (x < k) keep[idx] = arr < minArr;
+                if (cal[idx] == 0) minArr = Math.min(minArr, arr);
+            }
+
+            // Fold the survivors by (time of day, duration, calendar), weekday in the low 3 bits
+            // (11 bits time of day, 20 bits duration, 29 bits calendar id: all far more than needed)
+            int flags = 0;
+            int survivors = 0;
+            long[] byTimeOfDay = new long[k];
+            for (int x = 0; x < k; x++) {
+                if (!keep[x]) continue;
+                allDepartures[kept++] = dep[x];
+                if (cal[x] != 0) flags |= DATED;
+                byTimeOfDay[survivors++] = ((long) (dep[x] % DAY) << 52) | ((long) dur[x] << 32)
+                        | ((long) cal[x] << 3) | (dep[x] / DAY);
+            }
+            Arrays.sort(byTimeOfDay, 0, survivors);
+            int folded = 0;
+            for (int x = 0; x < survivors; x++) {
+                if (x == 0 || byTimeOfDay[x] >>> 3 != byTimeOfDay[x - 1] >>> 3) folded++;
+            }
+
+            int first = entries;
+            if (folded < survivors) {
+                flags |= BY_WEEKDAY;
+                for (int x = 0; x < survivors; x++) {
+                    long key = byTimeOfDay[x];
+                    if (x == 0 || key >>> 3 != byTimeOfDay[x - 1] >>> 3) {
+                        depart[entries] = (int) (key >>> 52);
+                        duration[entries] = (int) (key >>> 32) & 0xFFFFF;
+                        calendar[entries] = (int) (key >>> 3) & 0x1FFFFFFF;
+                        entries++;
+                    }
+                    weekdays[entries - 1] |= 1 << (int) (key & 7);
+                }
+            } else {
+                for (int x = 0; x < k; x++) {
+                    if (!keep[x]) continue;
+                    depart[entries] = dep[x];
+                    duration[entries] = dur[x];
+                    calendar[entries] = cal[x];
+                    entries++;
+                }
+            }
+            groupTo[groups] = to;
+            groupSize[groups] = entries - first;
+            groupFlags[groups] = flags;
+            groups++;
+
+            i = j;
+        }
+
+        // Distinct departure minutes of this airport, over all its routes
+        int[] departureTimes = Arrays.copyOf(allDepartures, kept);
+        Arrays.sort(departureTimes);
+        int d = 0;
+        for (int r = 0; r < kept; r++) {
+            if (r == 0 || departureTimes[r] != departureTimes[d - 1]) departureTimes[d++] = departureTimes[r];
+        }
+
+        return new AirportRows(Arrays.copyOf(groupTo, groups), Arrays.copyOf(groupSize, groups),
+                Arrays.copyOf(groupFlags, groups),
+                Arrays.copyOf(depart, entries), Arrays.copyOf(duration, entries), Arrays.copyOf(calendar, entries),
+                Arrays.copyOf(weekdays, entries), Arrays.copyOf(departureTimes, d));
+    }
+
+    /*
+     * Copies one airport's rows behind the used part of the columns and points its ranges at them.
+     * Returns false (and leaves the ranges alone) if the columns are out of room.
+     */
+    private static boolean place(AirportRows rows, int u, IntColumns groups, IntColumns entries, IntColumns times,
+                                 int[] airportGroupBegin, int[] airportGroupEnd,
+                                 int[] airportDepartBegin, int[] airportDepartEnd) {
+        int g0 = groups.claim(rows.groupTo.length);
+        int e0 = entries.claim(rows.depart.length);
+        int t0 = times.claim(rows.departureTimes.length);
+        if (g0 < 0 || e0 < 0 || t0 < 0) return false; // rows claimed anyway are just never used
+
+        int[] groupTo = groups.columns[0];
+        int[] groupBegin = groups.columns[1];
+        int[] groupEnd = groups.columns[2];
+        int[] groupFlags = groups.columns[3];
+        int e = e0;
+        for (int x = 0; x < rows.groupTo.length; x++) {
+            groupTo[g0 + x] = rows.groupTo[x];
+            groupFlags[g0 + x] = rows.groupFlags[x];
+            groupBegin[g0 + x] = e;
+            e += rows.groupSize[x];
+            groupEnd[g0 + x] = e;
+        }
+        System.arraycopy(rows.depart, 0, entries.columns[0], e0, rows.depart.length);
+        System.arraycopy(rows.duration, 0, entries.columns[1], e0, rows.duration.length);
+        System.arraycopy(rows.calendar, 0, entries.columns[2], e0, rows.calendar.length);
+        System.arraycopy(rows.weekdays, 0, entries.columns[3], e0, rows.weekdays.length);
+        System.arraycopy(rows.departureTimes, 0, times.columns[0], t0, rows.departureTimes.length);
+
+        airportGroupBegin[u] = g0;
+        airportGroupEnd[u] = g0 + rows.groupTo.length;
+        airportDepartBegin[u] = t0;
+        airportDepartEnd[u] = t0 + rows.departureTimes.length;
+        return true;
+    }
+
+    private static IntColumns trimWithRoom(IntColumns cols) {
+        int used = cols.used();
+        int capacity = used + used / 4 + 64;
+        int[][] trimmed = new int[cols.columns.length][];
+        for (int c = 0; c < trimmed.length; c++) {
+            trimmed[c] = Arrays.copyOf(cols.columns[c], capacity);
+        }
+        return new IntColumns(trimmed, used);
+    }
+
+    /** The CompactGraph this index belongs to (airport ids are shared). */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public int groupBegin(int airport) {
+        return airportGroupBegin[airport];
+    }
+
+    public int groupEnd(int airport) {
+        return airportGroupEnd[airport];
+    }
+
+    public int groupTo(int group) {
+        return groupTo[group];
+    }
+
+    /**
+     * The group of flights airport -> to (groups of an airport are sorted by destination).
+     *
+     * @return group index, or -1 if there is no such route
+     */
+    public int groupOf(int airport, int to) {
+        int idx = Arrays.binarySearch(groupTo, airportGroupBegin[airport], airportGroupEnd[airport], to);
+        return idx < 0 ? -1 : idx;
+    }
+
+    public int groupCount() {
+        return groupCount;
+    }
+
+    public int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * The next flight of a group (one route u -> v) that can still be caught.
+     *
+     * @param group         group index (see groupBegin/groupEnd of an airport)
+     * @param earliestDepart absolute minute we can board at the earliest (arrival + layover)
+     * @param latestArrival  absolute minute we must have landed by (the 2-week cap)
+     * @return packed (departure << 32 | arrival) of that occurrence, or NONE
+     */
+    public long nextConnection(int group, int earliestDepart, int latestArrival) {
+        return nextConnection(group, earliestDepart, latestArrival, UNDATED);
+    }
+
+    /**
+     * Same, on actual dates: an occurrence only counts if its calendar runs on its departure date.
+     *
+     * @param weekStartDay LocalDate.toEpochDay() of the Monday that absolute minute 0 falls on,
+     *                     or UNDATED to treat every flight as running every week
+     */
+    public long nextConnection(int group, int earliestDepart, int latestArrival, long weekStartDay) {
+        int begin = groupBegin[group];
+        int end = groupEnd[group];
+        if (begin == end) return NONE;
+        if ((groupFlags[group] & BY_WEEKDAY) != 0) {
+            return nextByWeekday(begin, end, earliestDepart, latestArrival, weekStartDay);
+        }
+
+        int allowedMod = earliestDepart % WEEK;
+        int allowedWeekStart = earliestDepart - allowedMod;
+
+        // First entry with depart >= allowedMod. In a FIFO group departures are unique after
+        // pruning; a DATED group can have several flights leaving at the same minute (only ALWAYS
+        // flights dominate), and binarySearch may hit any of them, so step back to the first one.
+        int idx = Arrays.binarySearch(depart, begin, end, allowedMod);
+        if (idx < 0) idx = -idx - 1;
+
+        if ((groupFlags[group] & DATED) != 0) {
+            while (idx > begin && depart[idx - 1] == allowedMod) idx--;
+            return scanDated(begin, end, idx, allowedWeekStart, latestArrival, weekStartDay);
+        }
+
+        int candidateDep;
+        if (idx < end) {
+            candidateDep = allowedWeekStart + depart[idx];        // catch it in this weekly cycle
+        } else {
+            idx = begin;
+            candidateDep = allowedWeekStart + WEEK + depart[idx]; // wrap around to next week's first flight
+        }
+
+        int candidateArr = candidateDep + duration[idx];
+        if (candidateDep > latestArrival || candidateArr > latestArrival) return NONE;
+        return ((long) candidateDep << 32) | candidateArr;
+    }
+
+    /*
+     * nextConnection for a group that is not FIFO (it has dated flights): walk the occurrences
+     * from the first catchable one, skipping those whose calendar does not run that day, and stop
+     * once a departure is no earlier than the best arrival so far (nothing after it can beat it).
+     */
+    private long scanDated(int begin, int end, int idx, int weekStart, int latestArrival, long weekStartDay) {
+        long best = NONE;
+        int bestArr = Integer.MAX_VALUE;
+        if (idx == end) {
+            idx = begin;
+            weekStart += WEEK;
+        }
+        while (true) {
+            int dep = weekStart + depart[idx];
+            if (dep > latestArrival || dep >= bestArr) break;
+            int arr = dep + duration[idx];
+            if (arr < bestArr && arr <= latestArrival
+                    && (weekStartDay == UNDATED || graph.runs(calendar[idx], weekStartDay + dep / Utility.MINUTES_IN_DAY))) {
+                bestArr = arr;
+                best = ((long) dep << 32) | arr;
+            }
+            if (++idx == end) {
+                idx = begin;
+                weekStart += WEEK;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * nextConnection for a BY_WEEKDAY group: each entry's next occurrence comes straight from its
+     * weekday mask, the group's answer is the one landing first. On dates an entry may have to skip
+     * a few more running days until its calendar runs too.
+     */
+    private long nextByWeekday(int begin, int end, int earliestDepart, int latestArrival, long weekStartDay) {
+        int day = earliestDepart / DAY;        // absolute day, day 0 is a Monday
+        int timeOfDay = earliestDepart % DAY;
+        long best = NONE;
+        int bestArr = Integer.MAX_VALUE;
+        for (int i = begin; i < end; i++) {
+            int d = depart[i] < timeOfDay ? day + 1 : day; // first day it can still be caught
+            while (true) {
+                d += daysUntilRunning(weekdays[i], d % 7);
+                int dep = d * DAY + depart[i];
+                int arr = dep + duration[i];
+                if (arr >= bestArr || arr > latestArrival) break; // later days only land later
+                if (weekStartDay == UNDATED || graph.runs(calendar[i], weekStartDay + d)) {
+                    bestArr = arr;
+                    best = ((long) dep << 32) | arr;
+                    break;
+                }
+                d++;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * Days from weekday dow (0 = Monday) to the first day in the mask, 0 if it runs on dow itself:
+     * rotate the mask so that dow is bit 0, then count the trailing zeros.
+     *
+     *   days Mon..Sun  .T.T.S.  (Tue, Thu, Sat), dow = Wed:  from Wed on  .T.S..T  -> 1 day (Thu)
+     */
+    private static int daysUntilRunning(int mask, int dow) {
+        int rotated = ((mask >>> dow) | (mask << (7 - dow))) & 0x7F;
+        return Integer.numberOfTrailingZeros(rotated);
+    }
+
+    /** True if the graph has dated flights, i.e. dated queries can differ from the weekly timetable. */
+    public boolean hasDatedFlights() {
+        return graph.calendarCount() > 1;
+    }
+
+    /**
+     * First departure (any route) from an airport at or after the given time.
+     *
+     * @return minute within the week of that departure, or -1 if nothing leaves this airport
+     */
+    public int nextDeparture(int airport, int earliestDepart) {
+        int begin = airportDepartBegin[airport];
+        int end = airportDepartEnd[airport];
+        if (begin == end) return -1;
+        int idx = Arrays.binarySearch(departureTimes, begin, end, earliestDepart % WEEK);
+        if (idx < 0) idx = -idx - 1;
+        return idx < end ? departureTimes[idx] : departureTimes[begin]; // wrap to next week
+    }
+
+    /** All distinct departure minutes (within the week) of an airport, sorted. */
+    public int[] departureTimes(int airport) {
+        return Arrays.copyOfRange(departureTimes, airportDepartBegin[airport], airportDepartEnd[airport]);
+    }
+
+    /** Departure half of a value returned by nextConnection. */
+    public static int departOf(long connection) {
+        return (int) (connection >>> 32);
+    }
+
+    /** Arrival half of a value returned by nextConnection. */
+    public static int arriveOf(long connection) {
+        return (int) connection;
+    }
+}
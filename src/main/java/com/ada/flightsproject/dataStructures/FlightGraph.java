@@ -1,22 +1,33 @@
 package com.ada.flightsproject.dataStructures;
 
+import com.ada.flightsproject.algorithms.RoutingEngine;
+import com.ada.flightsproject.metrics.SearchCounters;
+import com.ada.flightsproject.metrics.SearchMetrics;
 import com.ada.flightsproject.utility.Utility;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
-public class FlightGraph {
+public class FlightGraph implements RoutingEngine {
 
     public static class Flight {
         public String from;
         public String to;
         public int depart; // minutes from start of week
         public int arrive; // minutes from start of week
+        public ServiceCalendar calendar = ServiceCalendar.ALWAYS; // dates it operates on (departure date)
 
-        Flight(String from, String to, int depart, int arrive) {
+        public Flight(String from, String to, int depart, int arrive) {
             this.from = from;
             this.to = to;
             this.depart = depart;
             this.arrive = arrive;
         }
+
+        public Flight(String from, String to, int depart, int arrive, ServiceCalendar calendar) {
+            this(from, to, depart, arrive);
+            this.calendar = calendar;
+        }
     }
 
     /* Flights from
@@ -24,16 +35,180 @@ public class FlightGraph {
      * "SIN" -> [Flight(SIN->SYD), Flight(SIN->NRT)]
      * "DPS" -> [Flight(DPS->PER)]
      */
-    private final Map<String, List<Flight>> flightsFrom = new HashMap<>();
+    private final Map<String, List<Flight>> flightsFrom; // null for a read-only snapshot
+
+    /*
+     * Frozen int-indexed copy of flightsFrom that the searches actually run over
+     * (DepartureIndex + the CompactGraph it was built from, published together in one field).
+     * Built lazily on the first query after loading, thrown away again by addFlight.
+     */
+    private volatile DepartureIndex departureIndex;
+
+    /** An empty, mutable graph to be filled with addFlight (e.g. by FlightGraphLoader). */
+    public FlightGraph() {
+        this.flightsFrom = new HashMap<>();
+    }
+
+    /* Read-only snapshot over an already built index. */
+    private FlightGraph(DepartureIndex frozen) {
+        this.flightsFrom = null;
+        this.departureIndex = frozen;
+    }
+
+    /**
+     * Read-only graph over an already packed CompactGraph (e.g. one read from a binary snapshot).
+     * Only the DepartureIndex is built; there is no CSV parsing and no Flight objects.
+     */
+    public static FlightGraph fromCompact(CompactGraph g) {
+        return new FlightGraph(DepartureIndex.build(g));
+    }
 
     /**
      * Core low-level add. Assumes depart/arrive are already
      * in "minutes from start of week" (0.. +infinity).
+     *
+     * @throws IllegalStateException on a snapshot (see snapshot())
+     */
+    public synchronized void addFlight(String from, String to, int depart, int arrive) {
+        addFlight(from, to, depart, arrive, ServiceCalendar.ALWAYS);
+    }
+
+    /**
+     * Same, for a flight that only operates on some dates (seasonal, one-off...).
+     * Undated queries still see it every week; dated ones only on the days it runs.
+     *
+     * @param calendar dates of departure on which this flight operates
      */
-    public void addFlight(String from, String to, int depart, int arrive) {
+    public synchronized void addFlight(String from, String to, int depart, int arrive, ServiceCalendar calendar) {
+        if (flightsFrom == null) {
+            throw new IllegalStateException("FlightGraph snapshot is read-only");
+        }
         flightsFrom
                 .computeIfAbsent(from, k -> new ArrayList<>())
-                .add(new Flight(from, to, depart, arrive));
+                .add(new Flight(from, to, depart, arrive, calendar));
+        departureIndex = null; // must be rebuilt before the next search
+    }
+
+    /**
+     * Immutable copy of the current state, safe to share between any number of searching threads.
+     * It shares the (already immutable) CompactGraph and DepartureIndex, so this is cheap;
+     * later addFlight calls on this graph do not affect the snapshot.
+     */
+    public FlightGraph snapshot() {
+        return isSnapshot() ? this : new FlightGraph(departureIndex());
+    }
+
+    /**
+     * Applies a batch of schedule changes and returns the outcome as a new read-only snapshot.
+     * This graph is left as it is, so searches running on it are not disturbed.
+     *
+     * Only the airports that have a changed departure are re-packed and re-indexed; their new
+     * edges are appended to arrays shared with this version (copy-on-write, see
+     * CompactGraph.withEdges and DepartureIndex.withChanges). Everything else is reused. Every so
+     * often, when the room behind those arrays has run out, one call re-indexes the whole graph.
+     *
+     * All or nothing: if a remove, retime or delay names a flight that does not exist, an
+     * IllegalArgumentException is thrown and no new version is made.
+     */
+    public FlightGraph withChanges(TimetableDelta delta) {
+        final int WEEK = Utility.MINUTES_IN_WEEK;
+        DepartureIndex idx = departureIndex();
+        CompactGraph g = idx.graph();
+
+        // Airports we have never seen get the next ids, in code order
+        TreeSet<String> unknown = new TreeSet<>();
+        for (TimetableDelta.Change c : delta.changes()) {
+            if (g.idOf(c.from) < 0) unknown.add(c.from);
+            if (g.idOf(c.to) < 0) unknown.add(c.to);
+        }
+        List<String> added = new ArrayList<>(unknown);
+        Map<String, Integer> addedIds = new HashMap<>();
+        for (int i = 0; i < added.size(); i++) {
+            addedIds.put(added.get(i), g.airportCount() + i);
+        }
+
+        // Working copy of the outgoing edges of every airport the delta touches, as (to, depart, duration, calendar)
+        Map<Integer, List<int[]>> edits = new TreeMap<>();
+        for (TimetableDelta.Change c : delta.changes()) {
+            int from = g.idOf(c.from) >= 0 ? g.idOf(c.from) : addedIds.get(c.from);
+            int to = g.idOf(c.to) >= 0 ? g.idOf(c.to) : addedIds.get(c.to);
+            List<int[]> edges = edits.computeIfAbsent(from, u -> {
+                List<int[]> list = new ArrayList<>();
+                if (u < g.airportCount()) {
+                    for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                        list.add(new int[] {g.edgeTo(e), g.edgeDepart(e), g.edgeDuration(e), g.edgeCalendar(e)});
+                    }
+                }
+                return list;
+            });
+
+            // added flights run every week; a retimed or delayed one keeps its calendar (set below)
+            if (c.kind == TimetableDelta.Kind.ADD) {
+                edges.add(new int[] {to, c.newDepart % WEEK, c.newArrive - c.newDepart, 0});
+                continue;
+            }
+            int pos = -1;
+            for (int i = 0; i < edges.size() && pos < 0; i++) {
+                if (edges.get(i)[0] == to && edges.get(i)[1] == c.depart % WEEK) pos = i;
+            }
+            if (pos < 0) {
+                throw new IllegalArgumentException("No flight " + c.from + " -> " + c.to
+                        + " departing at minute " + c.depart + " of the week");
+            }
+            int[] old = edges.get(pos);
+            if (c.kind == TimetableDelta.Kind.REMOVE) {
+                edges.remove(pos);
+            } else if (c.kind == TimetableDelta.Kind.DELAY) {
+                edges.set(pos, new int[] {to, c.newDepart % WEEK, old[2], old[3]});
+            } else {
+                edges.set(pos, new int[] {to, c.newDepart % WEEK, c.newArrive - c.newDepart, old[3]});
+            }
+        }
+
+        Map<Integer, int[]> changed = new HashMap<>();
+        for (Map.Entry<Integer, List<int[]>> edit : edits.entrySet()) {
+            List<int[]> edges = edit.getValue();
+            int[] packed = new int[edges.size() * 4];
+            for (int i = 0; i < edges.size(); i++) {
+                System.arraycopy(edges.get(i), 0, packed, i * 4, 4);
+            }
+            changed.put(edit.getKey(), packed);
+        }
+
+        CompactGraph next = g.withEdges(added, changed);
+        int[] changedIds = edits.keySet().stream().mapToInt(Integer::intValue).toArray();
+        return new FlightGraph(idx.withChanges(next, changedIds));
+    }
+
+    /** True if this graph is a read-only snapshot. */
+    public boolean isSnapshot() {
+        return flightsFrom == null;
+    }
+
+    /**
+     * The frozen, array-backed form of this graph (see CompactGraph).
+     * Built once after loading and reused by every search until the next addFlight.
+     */
+    public CompactGraph compact() {
+        return departureIndex().graph();
+    }
+
+    /**
+     * Departures per (airport, destination), sorted by time of week (see DepartureIndex).
+     * Built together with compact().
+     */
+    public DepartureIndex departureIndex() {
+        DepartureIndex idx = departureIndex;
+        if (idx == null) {
+            synchronized (this) {
+                idx = departureIndex;
+                if (idx == null) {
+                    idx = DepartureIndex.build(CompactGraph.build(flightsFrom));
+                    departureIndex = idx;
+                }
+            }
+        }
+        return idx;
     }
 
     /**
@@ -67,8 +242,20 @@ public class FlightGraph {
         addFlight(startingAirport, destinationAirport, departWeekMinute, arriveWeekMinute);
     }
 
-    public Collection<Flight> getAllFlights() {
+    public synchronized Collection<Flight> getAllFlights() {
         List<Flight> all = new ArrayList<>();
+        if (flightsFrom == null) {
+            // Snapshot: export straight from the packed edge arrays
+            CompactGraph g = compact();
+            for (int u = 0; u < g.airportCount(); u++) {
+                for (int e = g.edgeBegin(u), end = g.edgeEnd(u); e < end; e++) {
+                    int dep = g.edgeDepart(e);
+                    all.add(new Flight(g.codeOf(u), g.codeOf(g.edgeTo(e)), dep, dep + g.edgeDuration(e),
+                            g.calendar(g.edgeCalendar(e))));
+                }
+            }
+            return all;
+        }
         for (List<Flight> list : flightsFrom.values()) {
             all.addAll(list);
         }
@@ -83,7 +270,7 @@ public class FlightGraph {
         public final List<Flight> flights;    // sequence of flights actually used
         public final int arrivalTime;         // final arrival time in minutes
 
-        Result(List<String> airports, List<Flight> flights, int arrivalTime) {
+        public Result(List<String> airports, List<Flight> flights, int arrivalTime) {
             this.airports = airports;
             this.flights = flights;
             this.arrivalTime = arrivalTime;
@@ -99,131 +286,188 @@ public class FlightGraph {
      * and flights repeat every week, and I must wait at least minLayover minutes before boarding each next flight,
      * what is the earliest time I can reach target, within 2 weeks?”
      *
+     * The search runs over the frozen CompactGraph (int airport ids + packed edge arrays),
+     * so there is no string hashing inside the loop, and uses the DepartureIndex to jump straight
+     * to the next catchable flight per destination instead of scanning every departure.
+     *
      * @param source starting airport code
      * @param target target airport code
      * @param startTime starting time in weekMinutes
      * @param minLayover minutes of layover (from my arrival to the next departure, how long do I need my buffer time?)
      * @return Result {airports, flights, arrivalTime}
      */
+    @Override
     public Result earliestArrival(String source, String target, int startTime, int minLayover) {
-        final int MINUTES_IN_DAY = 24 * 60;
-        final int WEEK = 7 * MINUTES_IN_DAY;
-        final int MAX_TIME = startTime + 2 * WEEK; // cap search to 2 weekly cycles
+        return earliestArrival(source, target, startTime, minLayover, DepartureIndex.UNDATED);
+    }
 
-        Map<String, Integer> bestTime = new HashMap<>();
-        Map<String, String> prevAirport = new HashMap<>();
-        Map<String, Flight> prevFlight = new HashMap<>();
+    /**
+     * Earliest arrival on actual dates: dated flights (see ServiceCalendar) are only taken on the
+     * days they operate. Flights without a calendar run every week as usual.
+     *
+     * Times in the Result are minutes from the Monday 00:00 of the week `start` falls in
+     * (so Tuesday 08:00 of that week is 1920, Monday of the next week 10080 and up).
+     *
+     * @param start departure date and time at the source (local time, like the timetable)
+     */
+    public Result earliestArrival(String source, String target, LocalDateTime start, int minLayover) {
+        return earliestArrival(source, target, weekMinuteOf(start), minLayover, weekStartDayOf(start));
+    }
 
-        // Initialize known airports with INFINITY
-        for (String airport : flightsFrom.keySet()) {
-            bestTime.put(airport, Integer.MAX_VALUE);
+    private Result earliestArrival(String source, String target, int startTime, int minLayover, long weekStartDay) {
+        DepartureIndex idx = departureIndex(); // one consistent version for the whole query
+        CompactGraph g = idx.graph();
+        int src = g.idOf(source);
+        int dst = g.idOf(target);
+
+        if (source.equals(target)) {
+            // Already there, no flights needed
+            return new Result(List.of(source), Collections.emptyList(), startTime);
         }
-        bestTime.put(source, startTime);
+        if (src < 0 || dst < 0) {
+            // Unknown airport -> nothing reachable
+            return new Result(Collections.emptyList(), Collections.emptyList(), Integer.MAX_VALUE);
+        }
+
+        // per-thread arrays and heap, reused across queries (see SearchWorkspace)
+        SearchWorkspace ws = SearchWorkspace.forCurrentThread();
+        search(ws, idx, src, dst, startTime, minLayover, weekStartDay);
 
-        // We are currently at airport at time, and we want to explore where we can go from here.
-        class State {
-            String airport;
-            int time;
-            State(String airport, int time) { this.airport = airport; this.time = time; }
+        // When we’re done: check if we reached target
+        if (ws.best(dst) == Integer.MAX_VALUE) {
+            return new Result(Collections.emptyList(), Collections.emptyList(), Integer.MAX_VALUE);
         }
-        PriorityQueue<State> pq = new PriorityQueue<>(Comparator.comparingInt(s -> s.time)); // Take a State object called s, and return s.time.
-        pq.add(new State(source, startTime));
+        // reconstruct path: airports + flights, walking prevAirport back from the target
+        return ws.resultTo(g, src, dst);
+    }
+
+    /**
+     * One-to-all version of earliestArrival: same search, but it does not stop at a target,
+     * so we get the earliest arrival at every airport reachable within the 2-week window.
+     * Use ArrivalTree.resultTo(target) to get the Result for any destination afterwards.
+     *
+     * @param source starting airport code
+     * @param startTime starting time in weekMinutes
+     * @param minLayover minutes of layover before each flight
+     * @return tree of arrival times and the flights used to reach every airport
+     */
+    @Override
+    public ArrivalTree arrivalTree(String source, int startTime, int minLayover) {
+        return arrivalTree(source, startTime, minLayover, DepartureIndex.UNDATED);
+    }
+
+    /**
+     * One-to-all on actual dates; times are minutes from the Monday of start's week
+     * (see earliestArrival(String, String, LocalDateTime, int)).
+     */
+    public ArrivalTree arrivalTree(String source, LocalDateTime start, int minLayover) {
+        return arrivalTree(source, weekMinuteOf(start), minLayover, weekStartDayOf(start));
+    }
+
+    private ArrivalTree arrivalTree(String source, int startTime, int minLayover, long weekStartDay) {
+        DepartureIndex idx = departureIndex();
+        CompactGraph g = idx.graph();
+        int src = g.idOf(source);
+        SearchWorkspace ws = SearchWorkspace.forCurrentThread();
+        if (src < 0) {
+            ws.reset(g.airportCount()); // unknown source: nothing reachable
+        } else {
+            search(ws, idx, src, -1, startTime, minLayover, weekStartDay);
+        }
+        return ws.toTree(g, source, startTime);
+    }
+
+    /**
+     * Work done by the last search this thread ran (pushes, pops, edges scanned, ...).
+     * All zero unless the JVM runs with -Dflights.metrics=true (see SearchMetrics).
+     */
+    public static SearchCounters lastSearchCounters() {
+        return SearchWorkspace.forCurrentThread().counters.copy();
+    }
+
+    /*
+     * The actual Dijkstra, run inside the calling thread's workspace (see SearchWorkspace):
+     * best times and predecessors are read back from ws afterwards.
+     * dst = -1 means "no target", i.e. run until the queue is empty (one-to-all).
+     *
+     * With -Dflights.metrics=true it also counts its work into ws.counters and reports it,
+     * with its latency, to SearchMetrics (see lastSearchCounters).
+     *
+     * Checks the thread's interrupt flag every 1024 pops, so a cancelled or timed-out query
+     * (see FlightQueryService) stops with a CancellationException instead of running on.
+     *
+     * weekStartDay is the date (epoch day) of the Monday minute 0 falls on, or UNDATED; the
+     * calendar check itself happens inside nextConnection, one bit per candidate flight.
+     */
+    private void search(SearchWorkspace ws, DepartureIndex idx, int src, int dst, int startTime, int minLayover,
+                        long weekStartDay) {
+        final int WEEK = Utility.MINUTES_IN_WEEK;
+        final int MAX_TIME = startTime + 2 * WEEK; // cap search to 2 weekly cycles
+        final long started = SearchMetrics.ENABLED ? System.nanoTime() : 0;
+
+        ws.reset(idx.graph().airportCount());
+        ws.start(src, startTime);
+        ws.push(src, startTime);
+
+        int pops = 0;
 
         // The main Dijkstra loop
-        while (!pq.isEmpty()) {
-            State cur = pq.poll(); //retrieves and removes the element at the head of the queue
-            String u = cur.airport;
-            int time = cur.time;
+        while (!ws.isEmpty()) {
+            if ((++pops & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            long cur = ws.pop();
+            int u = SearchWorkspace.airportOf(cur);
+            int time = SearchWorkspace.timeOf(cur);
 
             // If the state we popped has a time worse than what we already recorded for that airport → discard.
-            if (time > bestTime.getOrDefault(u, Integer.MAX_VALUE)) continue;
+            if (time > ws.best(u)) {
+                if (SearchMetrics.ENABLED) ws.counters.stalePops++;
+                continue;
+            }
             // If we already exceed our 2-week cap, stop exploring from here
             if (time > MAX_TIME) continue;
+            if (SearchMetrics.ENABLED) ws.counters.settled++;
             // Early exit: earliest arrival at target found
-            if (u.equals(target)) break; // If u == target → we popped the earliest possible arrival at the target → done.
-
-            // Give me the list of flights that depart from airport u.
-            // If u has no outgoing flights, just return an empty list instead of null.
-            List<Flight> outgoing = flightsFrom.getOrDefault(u, Collections.emptyList());
-            // We iterate over all outgoing flights from u
-            for (Flight f : outgoing) {
-                // Base departure within a week (0..WEEK-1)
-                int depBase = f.depart % WEEK;
-                int flightDuration = f.arrive - f.depart; // should be > 0
-
-                // When are we allowed to depart next
-                // We need to respect layover from current time
-                int earliestAllowed = time + minLayover;
-                // EXAMPLE. If earliestAllowed is Monday 10:30 in week 3:
-                // - allowedWeekStart = Monday 00:00 of week 3
-                // - allowedMod = 10:30 in minutes
-                int allowedMod = earliestAllowed % WEEK;
-                int allowedWeekStart = earliestAllowed - allowedMod;
-
-                // Decide whether we catch it this week or next week
-                int candidateDep;
-                if (depBase >= allowedMod) {
-                    // catch it in this weekly cycle
-                    // EXAMPLE.
-                    // Flight: Wednesday 14:00
-                    // depBase = Wed 14:00
-                    // earliestAllowed = Wed 13:00 → allowedMod = Wed 13:00
-                    // depBase >= allowedMod → we can catch this same week → candidateDep is weekStart + Wed 14:00.
-                    candidateDep = allowedWeekStart + depBase;
-                } else {
-                    // need to wait until next week's occurrence
-                    candidateDep = allowedWeekStart + WEEK + depBase;
-                }
-                // If the earliest flight we can catch is already beyond our allowed window, we discard this edge.
-                if (candidateDep > MAX_TIME) {
-                    // Too far in future
-                    continue;
-                }
+            if (u == dst) break;
 
-                // Compute arrival time for this instance of the flight
-                int candidateArr = candidateDep + flightDuration;
-                if (candidateArr > MAX_TIME) {
-                    // Arrival past our 2-week window
+            // When are we allowed to depart next
+            // We need to respect layover from current time
+            int earliestAllowed = time + minLayover;
+
+            // One lookup per destination: the index binary-searches the first flight of the route
+            // that leaves at or after earliestAllowed (wrapping to next week if needed).
+            for (int grp = idx.groupBegin(u), end = idx.groupEnd(u); grp < end; grp++) {
+                long next = idx.nextConnection(grp, earliestAllowed, MAX_TIME, weekStartDay);
+                if (SearchMetrics.ENABLED) ws.counters.edgesScanned++;
+                // Nothing catchable inside our 2-week window
+                if (next == DepartureIndex.NONE) {
+                    if (SearchMetrics.ENABLED) ws.counters.windowPruned++;
                     continue;
                 }
 
-                // If going from u to f.to via this flight results in an arrival time better than the best we have for f.to,
-                // ... update and push to PQ.
-                if (candidateArr < bestTime.getOrDefault(f.to, Integer.MAX_VALUE)) {
-                    bestTime.put(f.to, candidateArr);
-                    prevAirport.put(f.to, u);
-
-                    // Store the actual instance of the flight we used, with
-                    // the concrete departure/arrival time for this occurrence.
-                    prevFlight.put(f.to, new Flight(f.from, f.to, candidateDep, candidateArr));
-
-                    pq.add(new State(f.to, candidateArr));
+                int candidateArr = DepartureIndex.arriveOf(next);
+                int v = idx.groupTo(grp);
+                if (candidateArr < ws.best(v)) {
+                    ws.improve(v, candidateArr, u, DepartureIndex.departOf(next));
+                    ws.push(v, candidateArr);
                 }
             }
         }
 
-        // When we’re done: check if we reached target
-        int finalTime = bestTime.getOrDefault(target, Integer.MAX_VALUE);
-        if (finalTime == Integer.MAX_VALUE) {
-            return new Result(Collections.emptyList(), Collections.emptyList(), Integer.MAX_VALUE);
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.global().record(ws.counters, System.nanoTime() - started);
         }
+    }
 
-        // reconstruct path: airports + flights
-        List<String> airportPath = new ArrayList<>();
-        List<Flight> usedFlights = new ArrayList<>();
-        String curAirport = target;
-        while (curAirport != null) {
-            airportPath.add(curAirport);
-            Flight used = prevFlight.get(curAirport);
-            if (used != null) {
-                usedFlights.add(used);
-            }
-            curAirport = prevAirport.get(curAirport);
-        }
-        Collections.reverse(airportPath);
-        Collections.reverse(usedFlights);
-
-        return new Result(airportPath, usedFlights, finalTime);
+    // Monday 08:00 -> 480, Tuesday 08:00 -> 1920, ...
+    private static int weekMinuteOf(LocalDateTime start) {
+        return (start.getDayOfWeek().getValue() - 1) * Utility.MINUTES_IN_DAY
+                + start.getHour() * 60 + start.getMinute();
     }
 
+    // epoch day of the Monday of start's week
+    private static long weekStartDayOf(LocalDateTime start) {
+        return start.toLocalDate().toEpochDay() - (start.getDayOfWeek().getValue() - 1);
+    }
 }
@@ -0,0 +1,53 @@
+package com.ada.flightsproject.dataStructures;
+
+/**
+ * A few parallel int arrays that graph versions share and only ever append to.
+ *
+ * This is how copy-on-write works for CompactGraph and DepartureIndex. Each version reads
+ * only inside its own per-airport [begin, end) ranges. So a newer version can write an
+ * airport's new rows after the last used slot, and older versions never notice:
+ *
+ *   version 1 ranges:  KUL [0, 3)   SIN [3, 5)
+ *   version 2 ranges:  KUL [5, 9)   SIN [3, 5)        <- only KUL was rewritten
+ *   columns:           [ k k k s s | K K K K | free ... ]
+ *                                    ^ appended by version 2
+ *
+ * When the free space runs out, the caller copies the live rows into new, bigger columns.
+ * Versions that still point at the old columns keep working.
+ */
+final class IntColumns {
+
+    final int[][] columns;
+    private int used;
+
+    IntColumns(int[][] columns, int used) {
+        this.columns = columns;
+        this.used = used;
+    }
+
+    /** Fresh columns with room for capacity rows, none used yet. */
+    static IntColumns allocate(int columnCount, int capacity) {
+        int[][] columns = new int[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            columns[c] = new int[capacity];
+        }
+        return new IntColumns(columns, 0);
+    }
+
+    /**
+     * Claims rows at the tail. Two versions built from the same parent never get the same slots.
+     *
+     * @return index of the first claimed row, or -1 if rows do not fit
+     */
+    synchronized int claim(int rows) {
+        if (columns[0].length - used < rows) return -1;
+        int at = used;
+        used += rows;
+        return at;
+    }
+
+    /** One past the last row ever claimed (slots no version uses may sit below it). */
+    synchronized int used() {
+        return used;
+    }
+}
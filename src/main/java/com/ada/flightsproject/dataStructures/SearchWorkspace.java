@@ -0,0 +1,165 @@
+package com.ada.flightsproject.dataStructures;
+
+import com.ada.flightsproject.metrics.SearchCounters;
+import com.ada.flightsproject.metrics.SearchMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for one search at a time (one instance per thread).
+ *
+ * Holds everything a Dijkstra needs as primitive arrays indexed by airport id, plus a binary
+ * min-heap of packed longs, so a query in steady state allocates nothing.
+ *
+ * Instead of clearing the arrays before every search we bump an "epoch" counter:
+ * an airport's bestTime only counts if stamp[airport] == epoch, anything else reads as infinity.
+ *
+ *   search #41: stamp [41, 41,  7, 41]   -> airports 0, 1, 3 were touched in this search
+ *   search #42: epoch = 42               -> all of them read as infinity again, O(1) "reset"
+ */
+public final class SearchWorkspace {
+
+    private static final int INF = Integer.MAX_VALUE;
+
+    /*
+     * One per thread, shared by every engine that runs a Dijkstra-style search on that thread
+     * (FlightGraph, GoalDirectedSearch), so a thread holds one set of arrays, not one per engine.
+     */
+    private static final ThreadLocal<SearchWorkspace> PER_THREAD = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private int[] bestTime = new int[0];
+    private int[] prevAirport = new int[0];
+    private int[] prevDepart = new int[0];
+    private int[] stamp = new int[0];
+    private int epoch = 0;
+
+    // Min-heap of (time << 32 | airport). Entries are never removed on improvement; the search
+    // skips stale ones when they are popped (time > bestTime).
+    private long[] heap = new long[16];
+    private int heapSize = 0;
+
+    /** Work done by the current (or last) search; only counted while SearchMetrics.ENABLED. */
+    public final SearchCounters counters = new SearchCounters();
+
+    /** The calling thread's workspace. Only one search per thread can use it at a time. */
+    public static SearchWorkspace forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Starts a new search over a graph with n airports: everything reads as infinity, heap empty.
+     */
+    public void reset(int n) {
+        if (stamp.length < n) {
+            bestTime = new int[n];
+            prevAirport = new int[n];
+            prevDepart = new int[n];
+            stamp = new int[n];
+            epoch = 0;
+        }
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // wrapped around after ~2 billion searches: clear for real once
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        heapSize = 0;
+        if (SearchMetrics.ENABLED) counters.clear();
+    }
+
+    public int best(int airport) {
+        return stamp[airport] == epoch ? bestTime[airport] : INF;
+    }
+
+    public int prevAirport(int airport) {
+        return prevAirport[airport];
+    }
+
+    public int prevDepart(int airport) {
+        return prevDepart[airport];
+    }
+
+    /** Records a new best arrival at airport, reached by the flight prevAirport -> airport leaving at prevDepart. */
+    public void improve(int airport, int time, int prevAirport, int prevDepart) {
+        this.stamp[airport] = epoch;
+        this.bestTime[airport] = time;
+        this.prevAirport[airport] = prevAirport;
+        this.prevDepart[airport] = prevDepart;
+    }
+
+    /** Sets the start airport (no predecessor). */
+    public void start(int airport, int time) {
+        improve(airport, time, -1, 0);
+    }
+
+    // ---------------------------------------------------------------- heap
+
+    public boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    public void push(int airport, int time) {
+        if (SearchMetrics.ENABLED) counters.pushes++;
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long entry = ((long) time << 32) | airport;
+        // sift up
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    /** Removes the entry with the smallest time; read it with timeOf/airportOf. */
+    public long pop() {
+        if (SearchMetrics.ENABLED) counters.pops++;
+        long top = heap[0];
+        long last = heap[--heapSize];
+        // sift down
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (last <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) heap[i] = last;
+        return top;
+    }
+
+    public static int timeOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    public static int airportOf(long entry) {
+        return (int) entry;
+    }
+
+    // ---------------------------------------------------------------- results
+
+    /**
+     * Builds the Result for dst from the predecessors of the current search.
+     * Only valid when dst was reached.
+     */
+    public FlightGraph.Result resultTo(CompactGraph g, int src, int dst) {
+        return ArrivalTree.buildResult(g, src, dst, bestTime, prevAirport, prevDepart);
+    }
+
+    /** Copies the current search out into an ArrivalTree (fresh arrays, so the workspace can be reused). */
+    ArrivalTree toTree(CompactGraph g, String source, int startTime) {
+        int n = g.airportCount();
+        int[] arrival = new int[n];
+        for (int v = 0; v < n; v++) {
+            arrival[v] = best(v);
+        }
+        return new ArrivalTree(g, source, startTime, arrival,
+                Arrays.copyOf(prevAirport, n), Arrays.copyOf(prevDepart, n));
+    }
+}
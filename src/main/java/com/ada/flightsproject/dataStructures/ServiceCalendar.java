@@ -0,0 +1,129 @@
+package com.ada.flightsproject.dataStructures;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The dates a flight actually operates on, as one bit per day.
+ *
+ *   summer = ServiceCalendar.between(2025-06-01, 2025-08-31, SATURDAY, SUNDAY)
+ *
+ *   first = 2025-06-01   bits: 1 0 0 0 0 0 1 1 0 0 0 0 0 1 1 ...   (Sun Jun 1, Sat Jun 7, Sun Jun 8, ...)
+ *
+ * A whole year fits in six longs, and most timetables only have a handful of distinct calendars,
+ * so the graph keeps one table of them and every edge just points at one (see
+ * CompactGraph.edgeCalendar). Flights without a calendar are ALWAYS: they run every week, as before.
+ */
+public final class ServiceCalendar {
+
+    /** Runs on every date (the weekly timetable without any dates). */
+    public static final ServiceCalendar ALWAYS = new ServiceCalendar(0, 0, new long[0]);
+
+    private final long firstDay;  // LocalDate.toEpochDay() of bit 0
+    private final int days;       // number of days covered; the flight does not run outside them
+    private final long[] bits;
+
+    private ServiceCalendar(long firstDay, int days, long[] bits) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.bits = bits;
+    }
+
+    /**
+     * Every date from `from` to `to` (both included) that falls on one of the given weekdays,
+     * or on any weekday if none are given.
+     */
+    public static ServiceCalendar between(LocalDate from, LocalDate to, DayOfWeek... weekdays) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Calendar ends before it starts: " + from + " .. " + to);
+        Set<DayOfWeek> allowed = EnumSet.allOf(DayOfWeek.class);
+        if (weekdays.length > 0) allowed = EnumSet.copyOf(Arrays.asList(weekdays));
+        int days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        long[] bits = new long[(days + 63) >>> 6];
+        LocalDate date = from;
+        for (int d = 0; d < days; d++, date = date.plusDays(1)) {
+            if (allowed.contains(date.getDayOfWeek())) bits[d >>> 6] |= 1L << d;
+        }
+        return new ServiceCalendar(from.toEpochDay(), days, bits);
+    }
+
+    /** Exactly the given dates (one-off and charter flights). */
+    public static ServiceCalendar on(LocalDate... dates) {
+        if (dates.length == 0) throw new IllegalArgumentException("A calendar needs at least one date");
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (LocalDate date : dates) {
+            first = Math.min(first, date.toEpochDay());
+            last = Math.max(last, date.toEpochDay());
+        }
+        int days = (int) (last - first + 1);
+        long[] bits = new long[(days + 63) >>> 6];
+        for (LocalDate date : dates) {
+            int d = (int) (date.toEpochDay() - first);
+            bits[d >>> 6] |= 1L << d;
+        }
+        return new ServiceCalendar(first, days, bits);
+    }
+
+    /**
+     * Rebuilds a calendar from its raw form (firstDay(), days(), toLongArray()), e.g. when reading
+     * a graph snapshot back.
+     */
+    public static ServiceCalendar of(long firstDay, int days, long[] bits) {
+        if (days <= 0 || bits.length != (days + 63) >>> 6) {
+            throw new IllegalArgumentException("Bad calendar: " + days + " days in " + bits.length + " words");
+        }
+        return new ServiceCalendar(firstDay, days, bits.clone());
+    }
+
+    public boolean isAlways() {
+        return this == ALWAYS;
+    }
+
+    public boolean runsOn(LocalDate date) {
+        return runsOn(date.toEpochDay());
+    }
+
+    /** @param epochDay LocalDate.toEpochDay() of the date */
+    public boolean runsOn(long epochDay) {
+        if (isAlways()) return true;
+        long d = epochDay - firstDay;
+        return d >= 0 && d < days && (bits[(int) (d >>> 6)] >>> d & 1) != 0;
+    }
+
+    /** First date covered (the flight need not run on it), undefined for ALWAYS. */
+    public long firstDay() {
+        return firstDay;
+    }
+
+    /** Number of days covered, 0 for ALWAYS. */
+    public int days() {
+        return days;
+    }
+
+    /** One bit per day from firstDay(), bit d of the calendar is bit (d % 64) of word d / 64. */
+    public long[] toLongArray() {
+        return bits.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ServiceCalendar other)) return false;
+        return firstDay == other.firstDay && days == other.days && Arrays.equals(bits, other.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(firstDay) * 31 + Arrays.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        if (isAlways()) return "ALWAYS";
+        return "ServiceCalendar[" + LocalDate.ofEpochDay(firstDay) + " .. "
+                + LocalDate.ofEpochDay(firstDay + days - 1) + ", " + Arrays.stream(bits).map(Long::bitCount).sum() + " days]";
+    }
+}
@@ -0,0 +1,90 @@
+package com.ada.flightsproject.dataStructures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of schedule changes, applied all together by FlightGraph.withChanges.
+ *
+ * A flight is identified by its key: (from, to, departure minute of the week).
+ *
+ *   TimetableDelta delta = new TimetableDelta()
+ *           .add("KUL", "SIN", 480, 545)        // new flight Mon 08:00 -> 09:05
+ *           .remove("KUL", "NRT", 4290)         // cancel the Wed 23:30 one
+ *           .retime("CGK", "DPS", 1800, 1830, 1940)
+ *           .delay("SIN", "SYD", 600, 45);      // Mon 10:00 leaves 45 minutes late, same duration
+ *
+ * Changes are applied in the order they were added, so a flight added earlier in the same
+ * delta can be retimed or removed again later in it.
+ */
+public class TimetableDelta {
+
+    public enum Kind { ADD, REMOVE, RETIME, DELAY }
+
+    public static class Change {
+        public final Kind kind;
+        public final String from;
+        public final String to;
+        public final int depart;    // key of the flight to remove/retime, or departure of the added flight
+        public final int newDepart; // ADD/RETIME/DELAY: departure after the change (minutes from start of week)
+        public final int newArrive; // ADD/RETIME: arrival after the change (DELAY: -1, it keeps its duration)
+
+        Change(Kind kind, String from, String to, int depart, int newDepart, int newArrive) {
+            this.kind = kind;
+            this.from = from;
+            this.to = to;
+            this.depart = depart;
+            this.newDepart = newDepart;
+            this.newArrive = newArrive;
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+
+    /** A new flight; times in minutes from start of week, like FlightGraph.addFlight. */
+    public TimetableDelta add(String from, String to, int depart, int arrive) {
+        checkTimes(depart, arrive);
+        changes.add(new Change(Kind.ADD, from, to, depart, depart, arrive));
+        return this;
+    }
+
+    /** Cancels the flight from -> to departing at depart. */
+    public TimetableDelta remove(String from, String to, int depart) {
+        changes.add(new Change(Kind.REMOVE, from, to, depart, -1, -1));
+        return this;
+    }
+
+    /** Moves the flight from -> to departing at depart to new times (same route). */
+    public TimetableDelta retime(String from, String to, int depart, int newDepart, int newArrive) {
+        checkTimes(newDepart, newArrive);
+        changes.add(new Change(Kind.RETIME, from, to, depart, newDepart, newArrive));
+        return this;
+    }
+
+    /**
+     * The flight from -> to departing at depart leaves `minutes` later (its duration and calendar
+     * stay). Past the end of the week it moves to the start of it, like any weekly flight.
+     */
+    public TimetableDelta delay(String from, String to, int depart, int minutes) {
+        if (minutes < 0) {
+            throw new IllegalArgumentException("Delay must not be negative: " + minutes);
+        }
+        changes.add(new Change(Kind.DELAY, from, to, depart, depart + minutes, -1));
+        return this;
+    }
+
+    public List<Change> changes() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    private static void checkTimes(int depart, int arrive) {
+        if (depart < 0 || arrive < depart) {
+            throw new IllegalArgumentException("Invalid flight times: depart " + depart + ", arrive " + arrive);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ada.flightsproject.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of durations in nanoseconds, in the style of HdrHistogram:
+ * values are exact up to 127 and have about 1.5% relative error above that.
+ *
+ *   index   0..127                    one bucket per value (0, 1, 2, ... 127)
+ *   index 128..191                    width 2   (128, 130, ... 254)
+ *   index 192..255                    width 4   (256, 260, ... 508)
+ *   ...                               every further 64 buckets double the width
+ *
+ * So about 2,400 buckets cover 0 ns .. ~1 hour. record() is one atomic increment and is safe
+ * from any number of threads; the percentiles are read without stopping writers (a value
+ * recorded during the read may or may not be counted).
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;                     // 128 sub-buckets
+    private static final int HALF = 1 << (SUB_BITS - 1);       // 64
+    private static final long MAX_VALUE = (1L << 42) - 1;      // ~73 minutes in ns, larger values are clamped
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(v));
+        total.increment();
+        sum.add(v);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public double mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @param percentile 0..100, e.g. 99.9
+     * @return the highest value in the bucket the percentile falls into (0 if nothing recorded)
+     */
+    public long valueAtPercentile(double percentile) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return highestValueIn(i);
+        }
+        return highestValueIn(BUCKETS - 1);
+    }
+
+    public long max() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) return highestValueIn(i);
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.reset();
+        sum.reset();
+    }
+
+    private static int indexOf(long v) {
+        int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(v | 1) - (SUB_BITS - 1));
+        int sub = (int) (v >>> bucket);
+        return bucket == 0 ? sub : bucket * HALF + sub;
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < 2 * HALF) return index;
+        int bucket = index / HALF - 1;
+        long sub = index - (long) bucket * HALF;
+        return ((sub + 1) << bucket) - 1;
+    }
+}
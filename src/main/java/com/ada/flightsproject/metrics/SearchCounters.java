@@ -0,0 +1,47 @@
+package com.ada.flightsproject.metrics;
+
+/**
+ * How much work one search did. Filled in by the search while SearchMetrics.ENABLED is on,
+ * all zero otherwise.
+ *
+ *   pushes         entries put on the priority queue
+ *   pops           entries taken off it
+ *   stalePops      pops skipped because the airport had already been reached earlier
+ *   edgesScanned   routes (airport -> destination groups) looked at
+ *   windowPruned   routes with no flight catchable inside the 2-week window
+ *   settled        airports actually expanded
+ */
+public class SearchCounters {
+    public long pushes;
+    public long pops;
+    public long stalePops;
+    public long edgesScanned;
+    public long windowPruned;
+    public long settled;
+
+    public void clear() {
+        pushes = 0;
+        pops = 0;
+        stalePops = 0;
+        edgesScanned = 0;
+        windowPruned = 0;
+        settled = 0;
+    }
+
+    public SearchCounters copy() {
+        SearchCounters c = new SearchCounters();
+        c.pushes = pushes;
+        c.pops = pops;
+        c.stalePops = stalePops;
+        c.edgesScanned = edgesScanned;
+        c.windowPruned = windowPruned;
+        c.settled = settled;
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        return "pushes=" + pushes + ", pops=" + pops + " (stale " + stalePops + "), edgesScanned=" + edgesScanned
+                + " (window-pruned " + windowPruned + "), settled=" + settled;
+    }
+}
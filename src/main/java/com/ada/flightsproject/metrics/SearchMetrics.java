@@ -0,0 +1,101 @@
+package com.ada.flightsproject.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide search statistics: totals of every search's SearchCounters plus a latency histogram.
+ *
+ * Off by default. Start the JVM with -Dflights.metrics=true to turn it on. ENABLED is a static final,
+ * so when it is off the JIT drops the "if (SearchMetrics.ENABLED)" blocks on the search path entirely.
+ *
+ * Read it from code through global(), or over JMX after registerMBean():
+ *
+ *   SearchMetrics m = SearchMetrics.global();
+ *   m.getQueries()          -> 1200
+ *   m.getLatencyP99Micros() -> 85.3
+ */
+public final class SearchMetrics implements SearchMetricsMXBean {
+
+    public static final String PROPERTY = "flights.metrics";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    public static final String OBJECT_NAME = "com.ada.flightsproject:type=SearchMetrics";
+
+    private static final SearchMetrics GLOBAL = new SearchMetrics();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder pops = new LongAdder();
+    private final LongAdder stalePops = new LongAdder();
+    private final LongAdder edgesScanned = new LongAdder();
+    private final LongAdder windowPruned = new LongAdder();
+    private final LongAdder settled = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private SearchMetrics() {
+    }
+
+    public static SearchMetrics global() {
+        return GLOBAL;
+    }
+
+    /** Adds one finished search. */
+    public void record(SearchCounters c, long nanos) {
+        queries.increment();
+        pushes.add(c.pushes);
+        pops.add(c.pops);
+        stalePops.add(c.stalePops);
+        edgesScanned.add(c.edgesScanned);
+        windowPruned.add(c.windowPruned);
+        settled.add(c.settled);
+        latency.record(nanos);
+    }
+
+    /** The raw latency histogram (nanoseconds), e.g. for other percentiles. */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * Makes the global metrics visible over JMX. Calling it again does nothing.
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override public long getQueries() { return queries.sum(); }
+    @Override public long getPushes() { return pushes.sum(); }
+    @Override public long getPops() { return pops.sum(); }
+    @Override public long getStalePops() { return stalePops.sum(); }
+    @Override public long getEdgesScanned() { return edgesScanned.sum(); }
+    @Override public long getEdgesPrunedByWindow() { return windowPruned.sum(); }
+    @Override public long getAirportsSettled() { return settled.sum(); }
+
+    @Override public double getLatencyMeanMicros() { return latency.mean() / 1000.0; }
+    @Override public double getLatencyP50Micros() { return latency.valueAtPercentile(50) / 1000.0; }
+    @Override public double getLatencyP99Micros() { return latency.valueAtPercentile(99) / 1000.0; }
+    @Override public double getLatencyP999Micros() { return latency.valueAtPercentile(99.9) / 1000.0; }
+    @Override public double getLatencyMaxMicros() { return latency.max() / 1000.0; }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        pushes.reset();
+        pops.reset();
+        stalePops.reset();
+        edgesScanned.reset();
+        windowPruned.reset();
+        settled.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ada.flightsproject.metrics;
+
+/**
+ * What SearchMetrics shows in JConsole / VisualVM, under com.ada.flightsproject:type=SearchMetrics.
+ * Counters are totals since start (or the last reset); latencies are in microseconds.
+ */
+public interface SearchMetricsMXBean {
+    long getQueries();
+    long getPushes();
+    long getPops();
+    long getStalePops();
+    long getEdgesScanned();
+    long getEdgesPrunedByWindow();
+    long getAirportsSettled();
+
+    double getLatencyMeanMicros();
+    double getLatencyP50Micros();
+    double getLatencyP99Micros();
+    double getLatencyP999Micros();
+    double getLatencyMaxMicros();
+
+    void reset();
+}
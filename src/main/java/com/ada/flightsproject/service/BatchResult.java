@@ -0,0 +1,112 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answers of a batch, stored column by column instead of one Result object per query.
+ *
+ *   query i:      0        1        2
+ *   arrival      [ 2950,   MAX,     1410 ]
+ *   legOffset    [ 0,      2,       2,       3 ]     legs of query i = [legOffset[i], legOffset[i+1])
+ *   legTo        [ SIN, NRT,  |  |  KIX ]            (airport ids, see graph())
+ *   legDepart    [ ...                  ]
+ *   legArrive    [ ...                  ]
+ *
+ * Airports are stored as ids of the graph's dictionary, so millions of answers cost a few
+ * int arrays rather than millions of Lists of Strings. Use resultOf(i) to get a normal
+ * FlightGraph.Result for a single query when needed.
+ */
+public final class BatchResult {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+    private final int[] sourceId;   // per query: source airport id (-1 if unknown)
+    private final int[] arrival;    // per query: earliest arrival, UNREACHABLE if none
+    private final int[] legOffset;  // per query + 1: start of its legs (null when paths were not requested)
+    private final int[] legTo;
+    private final int[] legDepart;
+    private final int[] legArrive;
+    private final List<RouteQuery> queries;
+
+    BatchResult(CompactGraph graph, List<RouteQuery> queries, int[] sourceId, int[] arrival,
+                int[] legOffset, int[] legTo, int[] legDepart, int[] legArrive) {
+        this.graph = graph;
+        this.queries = queries;
+        this.sourceId = sourceId;
+        this.arrival = arrival;
+        this.legOffset = legOffset;
+        this.legTo = legTo;
+        this.legDepart = legDepart;
+        this.legArrive = legArrive;
+    }
+
+    public int size() {
+        return arrival.length;
+    }
+
+    /** Dictionary for the airport ids in the leg columns. */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    public RouteQuery query(int i) {
+        return queries.get(i);
+    }
+
+    public int arrival(int i) {
+        return arrival[i];
+    }
+
+    public boolean reachable(int i) {
+        return arrival[i] != UNREACHABLE;
+    }
+
+    public boolean hasPaths() {
+        return legOffset != null;
+    }
+
+    /** Number of flights used by query i (needs paths). */
+    public int hops(int i) {
+        return legOffset[i + 1] - legOffset[i];
+    }
+
+    /** Airport id reached by leg k of query i (needs paths). */
+    public int legTo(int i, int k) {
+        return legTo[legOffset[i] + k];
+    }
+
+    public int legDepart(int i, int k) {
+        return legDepart[legOffset[i] + k];
+    }
+
+    public int legArrive(int i, int k) {
+        return legArrive[legOffset[i] + k];
+    }
+
+    /**
+     * Materialises query i as a normal Result (needs paths).
+     */
+    public FlightGraph.Result resultOf(int i) {
+        RouteQuery q = queries.get(i);
+        if (!reachable(i)) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), UNREACHABLE);
+        }
+        List<String> airports = new ArrayList<>();
+        List<FlightGraph.Flight> flights = new ArrayList<>();
+        airports.add(q.source());
+        int from = sourceId[i];
+        for (int k = 0; k < hops(i); k++) {
+            int to = legTo(i, k);
+            flights.add(new FlightGraph.Flight(graph.codeOf(from), graph.codeOf(to), legDepart(i, k), legArrive(i, k)));
+            airports.add(graph.codeOf(to));
+            from = to;
+        }
+        return new FlightGraph.Result(airports, flights, arrival[i]);
+    }
+}
@@ -0,0 +1,227 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.data.FlightGraphLoader;
+import com.ada.flightsproject.data.GraphSnapshotFile;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+    Command-line batch routing: queries in, one answer per query out, for files far too big to
+    hold in memory at once.
+
+    args: [--in queries.csv|-] [--out answers|-] [--format csv|jsonl] [--paths]
+          [--batch 50000] [--timetable flights.csv]
+
+    Input, one query per line (a header line starting with "source", blank lines and # comments
+    are skipped), in either form RouteQuery.parse reads, same as RouteServer's /routes:
+
+        source,target,day,time,layover        KUL,KIX,Monday,08:00,60
+        source,target,startMinute,layover     KUL,KIX,480,60
+
+    The file is read --batch queries at a time. Each batch goes to BatchRouter (all cores) while
+    the next one is being read and the previous one written, so memory stays at ~3 batches:
+
+        read:    [b1][b2]      [b3]      [b4]
+        route:       [ b1 ][ b2 ][ b3 ][ b4 ]
+        write:             [b1]  [b2]  [b3]  [b4]
+
+    Answers come out in input order. Malformed lines are reported on stderr and skipped; every
+    answer carries its input line number, so they can be matched up.
+*/
+public class BatchRouteTool {
+
+    private static final int DEFAULT_BATCH = 50_000;
+    private static final int MAX_REPORTED_PROBLEMS = 20;
+
+    private final FlightGraph graph;
+    private final boolean jsonLines;
+    private final boolean withPaths;
+    private final int batchSize;
+
+    private long answered = 0;
+    private long unreachable = 0;
+    private long malformed = 0;
+
+    public BatchRouteTool(FlightGraph graph, boolean jsonLines, boolean withPaths, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batch size must be at least 1");
+        this.graph = graph.snapshot();
+        this.jsonLines = jsonLines;
+        this.withPaths = withPaths;
+        this.batchSize = batchSize;
+    }
+
+    /** One batch of parsed queries and the input line each came from. */
+    private record Batch(List<RouteQuery> queries, int[] lineNo) {
+    }
+
+    /**
+     * Routes everything from in to out. Neither stream is closed.
+     */
+    public void run(BufferedReader in, Writer out) throws IOException {
+        BatchRouter router = new BatchRouter(graph);
+        // one thread hands batches to the router, so reading/writing here overlaps the routing
+        ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "batch-route");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            if (!jsonLines) {
+                out.write("line,source,target,start_day,start_time,layover,reachable,arrival_day,arrival_time,arrival_minute,hops"
+                        + (withPaths ? ",route" : "") + "\n");
+            }
+            int[] lineCounter = {0};
+            Batch pending = null;
+            CompletableFuture<BatchResult> running = null;
+            while (true) {
+                Batch next = readBatch(in, lineCounter);
+                CompletableFuture<BatchResult> started = next.queries.isEmpty() ? null
+                        : CompletableFuture.supplyAsync(() -> router.route(next.queries, withPaths), coordinator);
+                if (running != null) {
+                    write(running.join(), pending.lineNo, out);
+                }
+                if (started == null) break;
+                pending = next;
+                running = started;
+            }
+            out.flush();
+        } finally {
+            coordinator.shutdownNow();
+        }
+    }
+
+    private Batch readBatch(BufferedReader in, int[] lineCounter) throws IOException {
+        List<RouteQuery> queries = new ArrayList<>(Math.min(batchSize, 1 << 16));
+        int[] lineNo = new int[Math.min(batchSize, 1 << 16)];
+        String line;
+        while (queries.size() < batchSize && (line = in.readLine()) != null) {
+            int n = ++lineCounter[0];
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (n == 1 && line.regionMatches(true, 0, "source", 0, 6)) continue; // header
+            try {
+                RouteQuery q = RouteQuery.parse(line);
+                if (queries.size() == lineNo.length) lineNo = Arrays.copyOf(lineNo, lineNo.length * 2);
+                lineNo[queries.size()] = n;
+                queries.add(q);
+            } catch (IllegalArgumentException e) {
+                if (malformed++ < MAX_REPORTED_PROBLEMS) {
+                    System.err.println("line " + n + ": " + e.getMessage() + " -> skipped");
+                }
+            }
+        }
+        return new Batch(queries, lineNo);
+    }
+
+    private void write(BatchResult batch, int[] lineNo, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        for (int i = 0; i < batch.size(); i++) {
+            sb.setLength(0);
+            RouteQuery q = batch.query(i);
+            boolean reachable = batch.reachable(i);
+            answered++;
+            if (!reachable) unreachable++;
+
+            if (jsonLines) {
+                // {"line":12,"start":480,"layover":60,"from":...} - RouteServer's object with the query in front
+                sb.append("{\"line\":").append(lineNo[i])
+                        .append(",\"start\":").append(q.startTime())
+                        .append(",\"layover\":").append(q.minLayover()).append(',');
+                int mark = sb.length();
+                if (withPaths) {
+                    RouteServer.appendResult(sb, q.source(), q.target(), batch.resultOf(i));
+                } else {
+                    RouteServer.appendArrival(sb, q.source(), q.target(), batch.arrival(i));
+                    sb.append('}');
+                }
+                sb.deleteCharAt(mark); // its opening brace
+            } else {
+                String[] startDayTime = Utility.computeMinutesToDayAndTime(q.startTime());
+                sb.append(lineNo[i]).append(',').append(q.source()).append(',').append(q.target()).append(',')
+                        .append(startDayTime[0]).append(',').append(startDayTime[1]).append(',')
+                        .append(q.minLayover()).append(',').append(reachable).append(',');
+                if (reachable) {
+                    String[] arrival = Utility.computeMinutesToDayAndTime(batch.arrival(i));
+                    sb.append(arrival[0]).append(',').append(arrival[1]).append(',').append(batch.arrival(i));
+                } else {
+                    sb.append(",,");
+                }
+                sb.append(',');
+                if (withPaths) {
+                    if (reachable) sb.append(batch.hops(i));
+                    sb.append(',');
+                    if (reachable) {
+                        // KUL>HKG>KIX
+                        sb.append(q.source());
+                        for (int k = 0; k < batch.hops(i); k++) {
+                            sb.append('>').append(batch.graph().codeOf(batch.legTo(i, k)));
+                        }
+                    }
+                }
+            }
+            sb.append('\n');
+            out.append(sb);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String inPath = "-";
+        String outPath = "-";
+        String format = "csv";
+        boolean paths = false;
+        int batch = DEFAULT_BATCH;
+        String timetable = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--in" -> inPath = args[++i];
+                case "--out" -> outPath = args[++i];
+                case "--format" -> format = args[++i];
+                case "--paths" -> paths = true;
+                case "--batch" -> batch = Integer.parseInt(args[++i]);
+                case "--timetable" -> timetable = args[++i];
+                default -> {
+                    System.err.println("usage: BatchRouteTool [--in file|-] [--out file|-] [--format csv|jsonl] "
+                            + "[--paths] [--batch n] [--timetable flights.csv]");
+                    System.exit(2);
+                }
+            }
+        }
+        if (!format.equals("csv") && !format.equals("jsonl")) {
+            System.err.println("Unknown format: " + format + " (csv or jsonl)");
+            System.exit(2);
+        }
+
+        FlightGraph graph;
+        if (timetable != null) {
+            graph = new FlightGraph();
+            System.err.println(FlightGraphLoader.loadFlights(graph, Path.of(timetable)));
+        } else {
+            graph = GraphSnapshotFile.loadOrBuild(GraphSnapshotFile.defaultPath(), "/com/ada/flightsproject/data/FlightPathData.csv");
+        }
+
+        BatchRouteTool tool = new BatchRouteTool(graph, format.equals("jsonl"), paths, batch);
+        long t0 = System.nanoTime();
+        try (BufferedReader in = inPath.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(inPath), StandardCharsets.UTF_8);
+             Writer out = outPath.equals("-")
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                     : Files.newBufferedWriter(Path.of(outPath), StandardCharsets.UTF_8)) {
+            tool.run(in, out);
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        System.err.printf("%d queries (%d unreachable, %d malformed lines skipped) in %.1f s, %.0f queries/s%n",
+                tool.answered, tool.unreachable, tool.malformed, seconds, tool.answered / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Answers many earliest-arrival queries at once, e.g. "every origin/destination pair at every
+ * hour of the week".
+ *
+ * 1. Queries that share (source, startTime, minLayover) only differ in the target, so they are
+ *    grouped and answered by ONE one-to-all search (FlightGraph.arrivalTree).
+ * 2. The groups are spread over the cores with a fork-join pool.
+ * 3. Answers are written into a columnar BatchResult instead of one Result per query.
+ */
+public class BatchRouter {
+
+    private final FlightGraph graph;
+    private final ForkJoinPool pool;
+
+    /** Runs on the common fork-join pool. */
+    public BatchRouter(FlightGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BatchRouter(FlightGraph graph, ForkJoinPool pool) {
+        this.graph = graph.snapshot();
+        this.pool = pool;
+    }
+
+    public BatchResult route(Stream<RouteQuery> queries, boolean withPaths) {
+        return route(queries.collect(Collectors.toList()), withPaths);
+    }
+
+    /**
+     * @param queries   the questions, answered in the same order
+     * @param withPaths false to keep only arrival times (much smaller result)
+     */
+    public BatchResult route(List<RouteQuery> queries, boolean withPaths) {
+        CompactGraph g = graph.compact();
+        int q = queries.size();
+
+        // 1. Group query indices by (source, startTime, minLayover)
+        Map<GroupKey, List<Integer>> byKey = new HashMap<>();
+        for (int i = 0; i < q; i++) {
+            RouteQuery rq = queries.get(i);
+            byKey.computeIfAbsent(new GroupKey(rq.source(), rq.startTime(), rq.minLayover()), k -> new ArrayList<>())
+                    .add(i);
+        }
+        List<int[]> groups = new ArrayList<>(byKey.size());
+        for (List<Integer> members : byKey.values()) {
+            groups.add(members.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        int[] sourceId = new int[q];
+        int[] arrival = new int[q];
+        int[] hops = new int[q];
+        // legs of each group, packed (to, depart, arrive) per leg, in member order; stitched in step 3
+        int[][] groupLegs = new int[groups.size()][];
+
+        // 2. One one-to-all search per group, in parallel. Every group writes only its own query slots.
+        pool.submit(() -> IntStream.range(0, groups.size()).parallel().forEach(gi -> {
+            int[] members = groups.get(gi);
+            RouteQuery first = queries.get(members[0]);
+            ArrivalTree tree = graph.arrivalTree(first.source(), first.startTime(), first.minLayover());
+            int src = g.idOf(first.source());
+
+            int[] legs = withPaths ? new int[16] : null;
+            int used = 0;
+            for (int i : members) {
+                RouteQuery rq = queries.get(i);
+                sourceId[i] = src;
+                arrival[i] = tree.arrivalAt(rq.target());
+                if (!withPaths || arrival[i] == BatchResult.UNREACHABLE || rq.source().equals(rq.target())) {
+                    continue;
+                }
+                // walk the tree back from the target, then reverse the legs in place
+                int from = used;
+                for (int v = g.idOf(rq.target()); v != src; v = tree.prevAirport(v)) {
+                    if (used + 3 > legs.length) legs = Arrays.copyOf(legs, legs.length * 2);
+                    legs[used++] = v;
+                    legs[used++] = tree.prevDepart(v);
+                    legs[used++] = tree.arrivalAt(v);
+                    hops[i]++;
+                }
+                reverseTriples(legs, from, used);
+            }
+            groupLegs[gi] = withPaths ? Arrays.copyOf(legs, used) : null;
+        })).join();
+
+        if (!withPaths) {
+            return new BatchResult(g, queries, sourceId, arrival, null, null, null, null);
+        }
+
+        // 3. Stitch the legs into one set of columns, in query order
+        int[] legOffset = new int[q + 1];
+        for (int i = 0; i < q; i++) {
+            legOffset[i + 1] = legOffset[i] + hops[i];
+        }
+        int total = legOffset[q];
+        int[] legTo = new int[total];
+        int[] legDepart = new int[total];
+        int[] legArrive = new int[total];
+        for (int gi = 0; gi < groups.size(); gi++) {
+            int[] legs = groupLegs[gi];
+            int pos = 0;
+            for (int i : groups.get(gi)) {
+                for (int k = legOffset[i]; k < legOffset[i + 1]; k++) {
+                    legTo[k] = legs[pos++];
+                    legDepart[k] = legs[pos++];
+                    legArrive[k] = legs[pos++];
+                }
+            }
+        }
+        return new BatchResult(g, queries, sourceId, arrival, legOffset, legTo, legDepart, legArrive);
+    }
+
+    private static void reverseTriples(int[] a, int from, int to) {
+        for (int i = from, j = to - 3; i < j; i += 3, j -= 3) {
+            for (int k = 0; k < 3; k++) {
+                int tmp = a[i + k];
+                a[i + k] = a[j + k];
+                a[j + k] = tmp;
+            }
+        }
+    }
+
+    private record GroupKey(String source, int startTime, int minLayover) {
+    }
+}
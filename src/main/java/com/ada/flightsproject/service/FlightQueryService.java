@@ -0,0 +1,200 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.algorithms.AlternativeItineraries;
+import com.ada.flightsproject.algorithms.TransferPatternIndex;
+import com.ada.flightsproject.algorithms.TransferPatternSearch;
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.TimetableDelta;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Serves many route queries at once from one loaded timetable.
+ *
+ * - The timetable is held as an immutable FlightGraph snapshot in an AtomicReference.
+ *   Every query grabs the current snapshot when it is submitted and runs on that one.
+ * - reload() swaps in a new snapshot atomically, apply() does the same for a small delta.
+ *   Queries already running keep their old snapshot and finish normally; nothing blocks.
+ * - Queries run on a bounded thread pool (or one virtual thread each). A full queue rejects
+ *   new work with RejectedExecutionException instead of piling up.
+ * - Futures can be cancelled (the search checks the interrupt flag) and query() takes a timeout.
+ * - Point queries go through a RouteCache, which is emptied on reload().
+ * - With useTransferPatterns(), point queries are answered from a precomputed index while it
+ *   still matches the served timetable; after reload()/apply() they go back to the search.
+ */
+public class FlightQueryService implements AutoCloseable {
+
+    private final AtomicReference<FlightGraph> current = new AtomicReference<>();
+    private final ExecutorService executor;
+    private final RouteCache cache = new RouteCache(DEFAULT_CACHE_SIZE);
+    private volatile TransferPatternSearch patterns; // null = no index loaded
+
+    /** Max cached (source, target, departure bucket, layover) answers. */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    /**
+     * Bounded pool: one thread per core, at most 1024 queries waiting.
+     */
+    public FlightQueryService(FlightGraph graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(), 1024);
+    }
+
+    /**
+     * @param graph     timetable to serve (a snapshot is taken, later changes to graph are not seen)
+     * @param threads   number of search threads
+     * @param maxQueued queries allowed to wait for a thread before submit() starts rejecting
+     */
+    public FlightQueryService(FlightGraph graph, int threads, int maxQueued) {
+        this(graph, new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), daemonThreads("flight-query")));
+    }
+
+    private FlightQueryService(FlightGraph graph, ExecutorService executor) {
+        this.current.set(graph.snapshot());
+        this.executor = executor;
+    }
+
+    /**
+     * One virtual thread per query instead of a fixed pool. Good when queries are mixed with
+     * blocking I/O (e.g. an HTTP front end); the searches themselves are CPU-bound.
+     */
+    public static FlightQueryService withVirtualThreads(FlightGraph graph) {
+        return new FlightQueryService(graph, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /** The snapshot new queries will run on. */
+    public FlightGraph graph() {
+        return current.get();
+    }
+
+    /**
+     * Publishes a new timetable. Queries submitted from now on see it; queries already
+     * submitted keep the snapshot they started with.
+     */
+    public void reload(FlightGraph graph) {
+        current.set(graph.snapshot());
+        cache.invalidateAll();
+    }
+
+    /**
+     * Applies schedule changes to the served timetable (see FlightGraph.withChanges) and
+     * publishes the result, like reload() but without rebuilding anything that did not change.
+     * Concurrent calls are applied one after the other; none is lost. The cache drops its
+     * entries by itself once it sees queries on the new version.
+     *
+     * @return the snapshot now being served
+     * @throws IllegalArgumentException if the delta removes, retimes or delays a flight that does not exist
+     *                                  (nothing is published then)
+     */
+    public FlightGraph apply(TimetableDelta delta) {
+        return current.updateAndGet(graph -> graph.withChanges(delta));
+    }
+
+    /**
+     * Answers point queries from a transfer-pattern index (see PrecomputeTransferPatterns).
+     * Only used for the timetable it was built for and its minLayover; anything else still
+     * goes through the cache and the normal search.
+     *
+     * @return false if the index does not match the timetable being served (it is not used)
+     */
+    public boolean useTransferPatterns(TransferPatternIndex index) {
+        TransferPatternSearch search = new TransferPatternSearch(current.get(), index);
+        patterns = search.isFresh() ? search : null;
+        return search.isFresh();
+    }
+
+    /** Hit/miss/eviction counters of the point-query cache. */
+    public RouteCache cache() {
+        return cache;
+    }
+
+    /**
+     * Runs any query function against the current snapshot on the service's threads.
+     * Cancelling the future with cancel(true) interrupts the search.
+     */
+    public <T> Future<T> submit(Function<FlightGraph, T> query) {
+        FlightGraph snapshot = current.get();
+        return executor.submit(() -> query.apply(snapshot));
+    }
+
+    public Future<FlightGraph.Result> submit(String source, String target, int startTime, int minLayover) {
+        return submit(g -> {
+            TransferPatternSearch tp = patterns;
+            if (tp != null && tp.graph() == g && tp.serves(minLayover)) {
+                return tp.earliestArrival(source, target, startTime, minLayover);
+            }
+            return cache.earliestArrival(g, source, target, startTime, minLayover);
+        });
+    }
+
+    /**
+     * Up to k itineraries through different airports, earliest arrival first
+     * (see AlternativeItineraries). The budget counts from when the search starts on a thread.
+     */
+    public Future<List<FlightGraph.Result>> submitAlternatives(String source, String target, int startTime,
+                                                               int minLayover, int k, Duration budget) {
+        return submit(g -> new AlternativeItineraries(g).kBest(source, target, startTime, minLayover, k, budget));
+    }
+
+    public Future<ArrivalTree> submitTree(String source, int startTime, int minLayover) {
+        return submit(g -> g.arrivalTree(source, startTime, minLayover));
+    }
+
+    /**
+     * Blocking earliest-arrival query with a timeout. On timeout the search is cancelled.
+     */
+    public FlightGraph.Result query(String source, String target, int startTime, int minLayover, Duration timeout)
+            throws InterruptedException, TimeoutException {
+        Future<FlightGraph.Result> future = submit(source, target, startTime, minLayover);
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException("Search failed", cause);
+        }
+    }
+
+    /**
+     * Runs a task (e.g. a JavaFX Task) on the service's threads. The task should read the
+     * timetable through graph().
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Stops accepting queries and waits briefly for running ones; stragglers are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.dataStructures.DepartureIndex;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache in front of FlightGraph.earliestArrival.
+ *
+ * Start times are bucketed by the next departure from the source: starting at 08:05 or 08:40
+ * with a 60 min layover both mean "first flight we can take is the 09:45", so both give the
+ * same route (just shifted to the right week). The key is therefore
+ *
+ *   (source, target, next departure minute from source, minLayover)
+ *
+ * and entries are computed once for week 0 and shifted by whole weeks on the way out.
+ *
+ * Entries belong to one graph version. As soon as a query comes in for a different graph
+ * (e.g. after FlightQueryService.reload) the cache empties itself, and results still being
+ * computed on the old graph are not stored.
+ *
+ * Returned Results may be shared between callers: treat them as read-only.
+ */
+public class RouteCache {
+
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, FlightGraph.Result> entries;
+    private DepartureIndex version; // graph version the entries were computed on (guarded by this)
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RouteCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // access-order LinkedHashMap = LRU; the eldest entry is dropped once we are over capacity
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FlightGraph.Result> eldest) {
+                if (size() > RouteCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Same answer as graph.earliestArrival(source, target, startTime, minLayover), from the cache
+     * when possible.
+     */
+    public FlightGraph.Result earliestArrival(FlightGraph graph, String source, String target, int startTime, int minLayover) {
+        DepartureIndex idx = graph.departureIndex();
+        int src = idx.graph().idOf(source);
+        if (src < 0 || idx.graph().idOf(target) < 0 || source.equals(target) || startTime < 0) {
+            return graph.earliestArrival(source, target, startTime, minLayover); // trivial, not worth caching
+        }
+
+        // Bucket: the first departure from source we could take
+        int earliestAllowed = startTime + minLayover;
+        int nextDep = idx.nextDeparture(src, earliestAllowed);
+        if (nextDep < 0) {
+            // nothing ever leaves the source
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), Integer.MAX_VALUE);
+        }
+
+        // Absolute time of that departure for this query, and the week-0 start that reaches it
+        int allowedMod = earliestAllowed % WEEK;
+        int depAbs = earliestAllowed - allowedMod + nextDep + (nextDep < allowedMod ? WEEK : 0);
+        int canonicalStart = nextDep - minLayover;
+        if (canonicalStart < 0) canonicalStart += WEEK;
+        int shift = depAbs - (canonicalStart + minLayover); // whole weeks
+
+        Key key = new Key(source, target, nextDep, minLayover);
+        FlightGraph.Result cached = lookup(idx, key);
+        if (cached == null) {
+            misses.increment();
+            cached = graph.earliestArrival(source, target, canonicalStart, minLayover);
+            store(idx, key, cached);
+        } else {
+            hits.increment();
+        }
+
+        if (cached.arrivalTime == Integer.MAX_VALUE) return cached;
+        // The bucket's route may land after THIS query's 2-week cap (its cap starts later)
+        if ((long) cached.arrivalTime + shift > (long) startTime + 2 * WEEK) {
+            return new FlightGraph.Result(Collections.emptyList(), Collections.emptyList(), Integer.MAX_VALUE);
+        }
+        return shift == 0 ? cached : shifted(cached, shift);
+    }
+
+    private synchronized FlightGraph.Result lookup(DepartureIndex idx, Key key) {
+        if (idx != version) {
+            entries.clear(); // graph was reloaded: everything we hold is stale
+            version = idx;
+        }
+        return entries.get(key);
+    }
+
+    private synchronized void store(DepartureIndex idx, Key key, FlightGraph.Result result) {
+        if (idx == version) { // skip results from a graph that was replaced meanwhile
+            entries.put(key, result);
+        }
+    }
+
+    private static FlightGraph.Result shifted(FlightGraph.Result r, int shift) {
+        List<FlightGraph.Flight> flights = new ArrayList<>(r.flights.size());
+        for (FlightGraph.Flight f : r.flights) {
+            flights.add(new FlightGraph.Flight(f.from, f.to, f.depart + shift, f.arrive + shift));
+        }
+        return new FlightGraph.Result(r.airports, flights, r.arrivalTime + shift);
+    }
+
+    /** Drops every entry (counters are kept). */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        version = null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private record Key(String source, String target, int nextDeparture, int minLayover) {
+    }
+}
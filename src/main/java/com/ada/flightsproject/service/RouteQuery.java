@@ -0,0 +1,67 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.utility.Utility;
+
+/**
+ * One earliest-arrival question: same parameters as FlightGraph.earliestArrival.
+ *
+ * @param source     starting airport code
+ * @param target     target airport code
+ * @param startTime  starting time in week-minutes
+ * @param minLayover minutes of layover before each flight
+ */
+public record RouteQuery(String source, String target, int startTime, int minLayover) {
+
+    /** Latest start accepted from outside: the last minute of the week. */
+    public static final int MAX_START_TIME = Utility.MINUTES_IN_WEEK - 1;
+    /** Longest layover accepted from outside (same bound as ProfileSearch). */
+    public static final int MAX_LAYOVER = Utility.MINUTES_IN_DAY;
+
+    /**
+     * One query line, as RouteServer's /routes and BatchRouteTool read them:
+     *
+     *   source,target,day,time,layover        KUL,KIX,Monday,08:00,60
+     *   source,target,startMinute,layover     KUL,KIX,480,60
+     *
+     * Airport codes are upper-cased.
+     *
+     * @throws IllegalArgumentException wrong number of fields, bad number / day / time, or a start
+     *                                  or layover out of range (see checkStartTime, checkLayover)
+     */
+    public static RouteQuery parse(String line) {
+        String[] f = line.split(",");
+        if (f.length != 4 && f.length != 5) {
+            throw new IllegalArgumentException("expected source,target,day,time,layover or source,target,startMinute,layover");
+        }
+        try {
+            int start = f.length == 5
+                    ? Utility.computeDepartureArrivalMinutes(f[2], f[3], 0)[0]
+                    : checkStartTime(Integer.parseInt(f[2].trim()));
+            int layover = checkLayover(Integer.parseInt(f[f.length - 1].trim()));
+            return new RouteQuery(f[0].trim().toUpperCase(), f[1].trim().toUpperCase(), start, layover);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number (" + e.getMessage() + ")");
+        }
+    }
+
+    /*
+     * The search adds layovers and a 2-week window to these in int: anything much bigger would
+     * overflow into a negative "arrival" instead of failing, so they are checked on the way in.
+     */
+
+    /** @throws IllegalArgumentException unless 0 <= startTime <= MAX_START_TIME */
+    public static int checkStartTime(int startTime) {
+        if (startTime < 0 || startTime > MAX_START_TIME) {
+            throw new IllegalArgumentException("start time must be between 0 and " + MAX_START_TIME);
+        }
+        return startTime;
+    }
+
+    /** @throws IllegalArgumentException unless 0 <= minLayover <= MAX_LAYOVER */
+    public static int checkLayover(int minLayover) {
+        if (minLayover < 0 || minLayover > MAX_LAYOVER) {
+            throw new IllegalArgumentException("layover must be between 0 and " + MAX_LAYOVER);
+        }
+        return minLayover;
+    }
+}
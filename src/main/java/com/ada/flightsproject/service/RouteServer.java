@@ -0,0 +1,402 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.algorithms.TransferPatternIndex;
+import com.ada.flightsproject.data.GraphSnapshotFile;
+import com.ada.flightsproject.data.TransferPatternFile;
+import com.ada.flightsproject.dataStructures.CompactGraph;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.metrics.SearchMetrics;
+import com.ada.flightsproject.utility.Utility;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless mode: the same queries as the UI, over HTTP with JSON answers (JDK HttpServer only).
+ *
+ *   GET  /route?from=KUL&to=KIX&start=480&layover=60         one query, start in week-minutes
+ *   GET  /route?from=KUL&to=KIX&day=Monday&time=08:00         ... or as day + time
+ *   POST /routes[?paths=false]                                many queries, one per body line:
+ *                                                             "source,target,startTime,minLayover"
+ *                                                             or "source,target,day,time,minLayover"
+ *
+ * start is a minute of the week (0..10079), layover 0..1440 minutes; anything else is a 400
+ * (see RouteQuery, which also parses the body lines).
+ *   GET  /health                                              airport/flight counts of the timetable
+ *
+ *   $ curl 'localhost:8080/route?from=KUL&to=KIX&day=Monday&time=08:00'
+ *   {"from":"KUL","to":"KIX","reachable":true,"arrival":2350,"arrivalDay":"Tuesday","arrivalTime":"15:10",
+ *    "airports":["KUL","HKG","KIX"],"flights":[{"from":"KUL","to":"HKG","depart":540,...},...]}
+ *
+ * Every request is handled on its own virtual thread; the searches themselves run on the
+ * FlightQueryService's bounded pool, so a burst of requests queues up there and gets 503 once
+ * the queue is full instead of starting thousands of searches at once. Responses always carry a
+ * Content-Length, so clients can keep the connection alive between requests.
+ *
+ * close() is the graceful shutdown: turn new requests away, give running ones a few seconds to
+ * finish, then stop the listener and the search threads. main() runs it on Ctrl-C / SIGTERM.
+ */
+public class RouteServer implements AutoCloseable {
+
+    /** Most queries accepted in one POST /routes. */
+    public static final int MAX_BATCH = 10_000;
+
+    private static final Duration QUERY_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(60);
+    private static final int SHUTDOWN_GRACE_SECONDS = 5;
+
+    private final HttpServer server;
+    private final ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final FlightQueryService service;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closing = false;
+
+    /**
+     * Binds the port right away; call start() to begin answering.
+     *
+     * @param service answers the queries; the server owns it from now on (close() closes it)
+     * @param address e.g. new InetSocketAddress(8080); port 0 picks a free port (see port())
+     */
+    public RouteServer(FlightQueryService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(requestThreads);
+        server.createContext("/route", exchange -> handle(exchange, "GET", this::route));
+        server.createContext("/routes", exchange -> handle(exchange, "POST", this::routes));
+        server.createContext("/health", exchange -> handle(exchange, "GET", this::health));
+    }
+
+    public RouteServer start() {
+        server.start();
+        return this;
+    }
+
+    /** The port actually bound (useful after binding port 0). */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Blocks until close() has finished. */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Graceful shutdown: new requests get 503, requests in progress get up to
+     * SHUTDOWN_GRACE_SECONDS to finish, then the listener, the request threads and the query
+     * service are stopped. Safe to call twice.
+     *
+     * (We wait for the requests ourselves: HttpServer.stop(delay) sits out the whole delay
+     * whenever a client still holds an idle keep-alive connection.)
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (stopped.getCount() == 0) return;
+            closing = true;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_GRACE_SECONDS);
+            try {
+                while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            server.stop(0);
+            requestThreads.close();
+            service.close();
+            stopped.countDown();
+        }
+    }
+
+    // ---------------------------------------------------------------- handlers
+
+    /** Builds the response body of one request, or throws (see handle for the status codes). */
+    private interface Handler {
+        String respond(HttpExchange exchange) throws Exception;
+    }
+
+    private String route(HttpExchange exchange) throws Exception {
+        Map<String, String> params = params(exchange);
+        String from = required(params, "from").toUpperCase();
+        String to = required(params, "to").toUpperCase();
+        int start = startTime(params);
+        int layover = RouteQuery.checkLayover(intParam(params, "layover", 60));
+
+        FlightGraph.Result result = service.query(from, to, start, layover, QUERY_TIMEOUT);
+        StringBuilder json = new StringBuilder(256);
+        appendResult(json, from, to, result);
+        return json.toString();
+    }
+
+    private String routes(HttpExchange exchange) throws Exception {
+        boolean withPaths = !"false".equalsIgnoreCase(params(exchange).get("paths"));
+        List<RouteQuery> queries = readQueries(exchange);
+
+        Future<BatchResult> future = service.submit(g -> new BatchRouter(g).route(queries, withPaths));
+        BatchResult batch;
+        try {
+            batch = future.get(BATCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+
+        StringBuilder json = new StringBuilder(64 + batch.size() * (withPaths ? 256 : 96));
+        json.append("{\"count\":").append(batch.size()).append(",\"results\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) json.append(',');
+            RouteQuery q = batch.query(i);
+            if (withPaths) {
+                appendResult(json, q.source(), q.target(), batch.resultOf(i));
+            } else {
+                appendArrival(json, q.source(), q.target(), batch.arrival(i));
+                json.append('}');
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private String health(HttpExchange exchange) {
+        CompactGraph g = service.graph().compact();
+        return "{\"status\":\"ok\",\"airports\":" + g.airportCount() + ",\"flights\":" + g.edgeCount() + "}";
+    }
+
+    /*
+     * Common part of every endpoint: method check, status codes, writing the body.
+     *
+     *   400  bad parameters or body          405  wrong method
+     *   413  batch over MAX_BATCH             503  query queue full / shutting down
+     *   504  search took longer than the timeout
+     */
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        inFlight.incrementAndGet();
+        try (exchange) {
+            int status = 200;
+            String body;
+            if (closing) {
+                status = 503;
+                body = error("Server is shutting down");
+            } else if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                status = 405;
+                body = error("Use " + method);
+                exchange.getResponseHeaders().set("Allow", method);
+            } else {
+                try {
+                    body = handler.respond(exchange);
+                } catch (BatchTooLargeException e) {
+                    status = 413;
+                    body = error(e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    status = 400;
+                    body = error(e.getMessage());
+                } catch (RejectedExecutionException e) {
+                    status = 503;
+                    body = error("Too many queries, try again later");
+                } catch (TimeoutException e) {
+                    status = 504;
+                    body = error("Search timed out");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    status = 503;
+                    body = error("Server is shutting down");
+                } catch (Exception e) {
+                    status = 500;
+                    body = error("Search failed: " + e);
+                }
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static final class BatchTooLargeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        BatchTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    // ---------------------------------------------------------------- request parsing
+
+    private static Map<String, String> params(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing parameter: " + name);
+        return value.trim();
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) return defaultValue;
+        return Integer.parseInt(value.trim()); // NumberFormatException is an IllegalArgumentException -> 400
+    }
+
+    /** start=<week minute>, or day=<Monday..Sunday>&time=<HH:mm> */
+    private static int startTime(Map<String, String> params) {
+        if (params.containsKey("start")) return RouteQuery.checkStartTime(intParam(params, "start", 0));
+        return Utility.computeDepartureArrivalMinutes(required(params, "day"), required(params, "time"), 0)[0];
+    }
+
+    /**
+     * Body lines as RouteQuery.parse reads them; blank lines and lines starting with # are skipped.
+     */
+    private static List<RouteQuery> readQueries(HttpExchange exchange) throws IOException {
+        List<RouteQuery> queries = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (queries.size() == MAX_BATCH) {
+                    throw new BatchTooLargeException("At most " + MAX_BATCH + " queries per request");
+                }
+                queries.add(parseQuery(line, lineNo));
+            }
+        }
+        return queries;
+    }
+
+    private static RouteQuery parseQuery(String line, int lineNo) {
+        try {
+            return RouteQuery.parse(line);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNo + ": " + e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------- JSON
+
+    /*
+     * Hand-written, the answers only contain airport codes, numbers and day names.
+     *
+     *   {"from":"KUL","to":"KIX","reachable":true,"arrival":2350,"arrivalDay":"Tuesday","arrivalTime":"15:10",
+     *    "airports":[...],"flights":[{"from":"KUL","to":"HKG","depart":540,"arrive":780},...]}
+     *
+     * An unreachable target has "reachable":false and no arrival/airports/flights.
+     */
+    static void appendResult(StringBuilder json, String from, String to, FlightGraph.Result result) {
+        appendArrival(json, from, to, result.arrivalTime);
+        if (result.arrivalTime != Integer.MAX_VALUE) {
+            json.append(",\"airports\":[");
+            for (int i = 0; i < result.airports.size(); i++) {
+                if (i > 0) json.append(',');
+                appendString(json, result.airports.get(i));
+            }
+            json.append("],\"flights\":[");
+            for (int i = 0; i < result.flights.size(); i++) {
+                FlightGraph.Flight f = result.flights.get(i);
+                if (i > 0) json.append(',');
+                json.append("{\"from\":");
+                appendString(json, f.from);
+                json.append(",\"to\":");
+                appendString(json, f.to);
+                json.append(",\"depart\":").append(f.depart).append(",\"arrive\":").append(f.arrive).append('}');
+            }
+            json.append(']');
+        }
+        json.append('}');
+    }
+
+    /** The object up to (not including) its closing brace, so callers can add more fields. */
+    static void appendArrival(StringBuilder json, String from, String to, int arrival) {
+        json.append("{\"from\":");
+        appendString(json, from);
+        json.append(",\"to\":");
+        appendString(json, to);
+        boolean reachable = arrival != Integer.MAX_VALUE;
+        json.append(",\"reachable\":").append(reachable);
+        if (reachable) {
+            String[] dayTime = Utility.computeMinutesToDayAndTime(arrival);
+            json.append(",\"arrival\":").append(arrival)
+                    .append(",\"arrivalDay\":\"").append(dayTime[0])
+                    .append("\",\"arrivalTime\":\"").append(dayTime[1]).append('"');
+        }
+    }
+
+    static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message == null ? "" : message);
+        return json.append('}').toString();
+    }
+
+    // ---------------------------------------------------------------- main
+
+    /*
+        args: [port, default 8080] [bind address, default all interfaces]
+
+        Loads the bundled timetable the same way App does (binary snapshot if still up to date),
+        plus the precomputed transfer patterns if present: only the server uses those, the UI's
+        search is per number of hops. Serves it until Ctrl-C / SIGTERM.
+    */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        InetSocketAddress address = args.length > 1 ? new InetSocketAddress(args[1], port) : new InetSocketAddress(port);
+
+        FlightGraph graph = GraphSnapshotFile.loadOrBuild(GraphSnapshotFile.defaultPath(), "/com/ada/flightsproject/data/FlightPathData.csv");
+        if (SearchMetrics.ENABLED) {
+            SearchMetrics.registerMBean();
+        }
+
+        FlightQueryService service = new FlightQueryService(graph);
+        TransferPatternIndex patterns = TransferPatternFile.read(TransferPatternFile.defaultPath());
+        if (patterns != null && !service.useTransferPatterns(patterns)) {
+            System.err.println("Transfer patterns in " + TransferPatternFile.defaultPath() + " are for another timetable, not used");
+        }
+
+        RouteServer server = new RouteServer(service, address).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "route-server-shutdown"));
+        System.out.println("Serving on http://" + address.getHostString() + ":" + server.port() + "/route");
+        server.awaitStop();
+    }
+}
@@ -23,8 +23,8 @@ public class Utility {
             Map.entry("SUN", 6)
     );
 
-    private static final int MINUTES_IN_DAY = 24 * 60;
-    private static final int MINUTES_IN_WEEK = 7 * MINUTES_IN_DAY;
+    public static final int MINUTES_IN_DAY = 24 * 60;
+    public static final int MINUTES_IN_WEEK = 7 * MINUTES_IN_DAY;
 
     /**
      * Converts (day + HH:mm + duration) into unified weekly minutes.
@@ -33,6 +33,7 @@ public class Utility {
      * @param timeHHMM  e.g. "13:45"
      * @param duration  flight duration in minutes
      * @return int[]{ departureWeekMinute, arrivalWeekMinute }
+     * @throws IllegalArgumentException for an unknown day or a time outside 00:00..23:59
      */
     public static int[] computeDepartureArrivalMinutes(String dayName, String timeHHMM, int duration) {
         int dayIndex = parseDay(dayName);
@@ -60,6 +61,7 @@ public class Utility {
 
         int hh = Integer.parseInt(parts[0]);
         int mm = Integer.parseInt(parts[1]);
+        if (hh < 0 || hh > 23 || mm < 0 || mm > 59) throw new IllegalArgumentException("Invalid time: " + hhmm);
         return hh * 60 + mm;
     }
 
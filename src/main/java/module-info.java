@@ -1,9 +1,12 @@
 module com.ada.flightsproject {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
+    requires jdk.httpserver;
 
 
 
     opens com.ada.flightsproject to javafx.fxml;
     exports com.ada.flightsproject;
+    exports com.ada.flightsproject.metrics; // SearchMetricsMXBean, for JMX
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlternativeItinerariesTest {
+
+    /*
+     * More itineraries asked for than there are airports. Six of them start AAA -> BBB, so when the
+     * slow one through CCC is accepted last, its spur at AAA has more accepted itineraries with the
+     * same root than there are airports (BBB must only be banned once):
+     *
+     *   AAA ──────────────────> DDD
+     *    ├──> BBB ──> DDD
+     *    │     ├──> XXX ──> DDD     XXX <──> YYY
+     *    │     ├──> YYY ──> DDD
+     *    │     └──> CCC ──> DDD
+     *    └──> CCC ──> DDD         (lands too late for the CCC flight, waits a week)
+     */
+    @Test
+    void moreItinerariesThanAirports() {
+        FlightGraph g = new FlightGraph();
+        g.addFlight("AAA", "DDD", 60, 200);
+        g.addFlight("AAA", "BBB", 30, 90);
+        g.addFlight("BBB", "DDD", 120, 240);
+        g.addFlight("BBB", "XXX", 100, 150);
+        g.addFlight("BBB", "YYY", 110, 170);
+        g.addFlight("XXX", "DDD", 180, 260);
+        g.addFlight("YYY", "DDD", 200, 280);
+        g.addFlight("XXX", "YYY", 160, 190);
+        g.addFlight("YYY", "XXX", 175, 195);
+        g.addFlight("BBB", "CCC", 130, 300);
+        g.addFlight("AAA", "CCC", 40, 600);
+        g.addFlight("CCC", "DDD", 500, 900);
+
+        List<FlightGraph.Result> results = new AlternativeItineraries(g)
+                .kBest("AAA", "DDD", 0, 0, 10, Duration.ofSeconds(30));
+
+        // every simple path AAA -> DDD, once each, earliest arrival first
+        assertEquals(8, results.size());
+        assertEquals(g.earliestArrival("AAA", "DDD", 0, 0).arrivalTime, results.get(0).arrivalTime);
+        Set<List<String>> routes = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            assertTrue(routes.add(results.get(i).airports), "same airports twice: " + results.get(i).airports);
+            if (i > 0) assertTrue(results.get(i - 1).arrivalTime <= results.get(i).arrivalTime);
+        }
+    }
+}
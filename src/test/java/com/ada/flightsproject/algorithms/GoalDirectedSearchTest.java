@@ -0,0 +1,54 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.dataStructures.TimetableDelta;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GoalDirectedSearchTest {
+
+    /*
+     * withChanges re-packs the changed airports' routes after the existing ones, so the route
+     * (group) indices of the updated graph have gaps and go past groupCount(). A* has to give the
+     * same arrivals as the plain search on such a graph.
+     */
+    @Test
+    void sameArrivalsAsDijkstraAfterTwoDeltas() {
+        FlightGraph g = new FlightGraph();
+        g.addFlight("KUL", "SIN", 600, 660);
+        g.addFlight("KUL", "HKG", 700, 940);
+        g.addFlight("SIN", "NRT", 800, 1200);
+        g.addFlight("SIN", "SYD", 900, 1400);
+        g.addFlight("HKG", "NRT", 1000, 1240);
+        g.addFlight("NRT", "KIX", 1300, 1380);
+        g.addFlight("SYD", "KUL", 2000, 2500);
+
+        TimetableDelta d1 = new TimetableDelta()
+                .add("KUL", "BKK", 650, 770)      // new route out of KUL
+                .add("BKK", "NRT", 900, 1260)     // and out of an airport with no flights yet
+                .delay("SIN", "NRT", 800, 45);
+        TimetableDelta d2 = new TimetableDelta()
+                .remove("HKG", "NRT", 1000)
+                .add("SIN", "KIX", 1000, 1350)    // SIN re-packed a second time
+                .retime("KUL", "SIN", 600, 620, 680);
+        FlightGraph updated = g.withChanges(d1).withChanges(d2);
+
+        GoalDirectedSearch astar = new GoalDirectedSearch(updated);
+        List<String> airports = updated.compact().airports();
+        for (String source : airports) {
+            for (String target : airports) {
+                for (int start = 0; start < 2500; start += 250) {
+                    for (int minLayover : new int[] {0, 60}) {
+                        FlightGraph.Result expected = updated.earliestArrival(source, target, start, minLayover);
+                        FlightGraph.Result actual = astar.earliestArrival(source, target, start, minLayover);
+                        assertEquals(expected.arrivalTime, actual.arrivalTime,
+                                source + " -> " + target + " at " + start + ", layover " + minLayover);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ada.flightsproject.algorithms;
+
+import com.ada.flightsproject.data.FlightGraphLoader;
+import com.ada.flightsproject.dataStructures.ArrivalTree;
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import com.ada.flightsproject.utility.Utility;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every engine behind RoutingEngine gives the same earliest arrivals as FlightGraph's own search.
+ */
+class RoutingEngineTest {
+
+    private static final String[] ENGINES = {"csa", "raptor", "astar"};
+    private static final int WEEK = Utility.MINUTES_IN_WEEK;
+
+    @Test
+    void sameArrivalsOnBundledTimetable() {
+        FlightGraph g = new FlightGraph();
+        FlightGraphLoader.loadFlights(g, "/com/ada/flightsproject/data/FlightPathData.csv");
+        compareAll(g.snapshot(), new Random(1), 1500);
+    }
+
+    /*
+     * Small random timetables, with flights taking no time at all and flights that leave at the
+     * end of the week and land in the next one.
+     */
+    @Test
+    void sameArrivalsOnRandomTimetables() {
+        Random rnd = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            FlightGraph g = new FlightGraph();
+            int airports = 3 + rnd.nextInt(15);
+            int flights = airports * (1 + rnd.nextInt(8));
+            for (int i = 0; i < flights; i++) {
+                String from = "A" + rnd.nextInt(airports);
+                String to = "A" + rnd.nextInt(airports);
+                if (from.equals(to)) continue;
+                int depart = switch (rnd.nextInt(4)) {
+                    case 0 -> WEEK - 1 - rnd.nextInt(120);    // Sunday night
+                    default -> rnd.nextInt(WEEK);
+                };
+                int duration = rnd.nextInt(5) == 0 ? 0 : 30 + rnd.nextInt(900);
+                g.addFlight(from, to, depart, depart + duration);
+            }
+            compareAll(g.snapshot(), rnd, 300);
+        }
+    }
+
+    private static void compareAll(FlightGraph g, Random rnd, int queries) {
+        List<RoutingEngine> engines = List.of(
+                new ConnectionScan(g),
+                RoutingEngine.create("raptor", g),
+                RoutingEngine.create("astar", g));
+        List<String> airports = g.compact().airports();
+        for (int q = 0; q < queries; q++) {
+            String source = airports.get(rnd.nextInt(airports.size()));
+            String target = airports.get(rnd.nextInt(airports.size()));
+            int start = rnd.nextInt(2 * WEEK);
+            int minLayover = 15 * rnd.nextInt(5);
+            FlightGraph.Result expected = g.earliestArrival(source, target, start, minLayover);
+            for (int e = 0; e < engines.size(); e++) {
+                String what = ENGINES[e] + ": " + source + " -> " + target + " at " + start + ", layover " + minLayover;
+                FlightGraph.Result actual = engines.get(e).earliestArrival(source, target, start, minLayover);
+                assertEquals(expected.arrivalTime, actual.arrivalTime, what);
+                assertFlyable(actual, source, target, start, minLayover, what);
+            }
+        }
+        // one-to-all, one source per engine run
+        String source = airports.get(rnd.nextInt(airports.size()));
+        int start = rnd.nextInt(WEEK);
+        ArrivalTree expected = g.arrivalTree(source, start, 30);
+        for (int e = 0; e < engines.size(); e++) {
+            ArrivalTree actual = engines.get(e).arrivalTree(source, start, 30);
+            for (String target : airports) {
+                assertEquals(expected.arrivalAt(target), actual.arrivalAt(target), ENGINES[e] + " tree: " + source + " -> " + target);
+            }
+        }
+    }
+
+    /* the itinerary is one someone could actually fly: connected, in time order, layovers kept */
+    private static void assertFlyable(FlightGraph.Result r, String source, String target, int start, int minLayover,
+                                      String what) {
+        if (r.arrivalTime == Integer.MAX_VALUE || source.equals(target)) return;
+        String at = source;
+        int time = start;
+        for (FlightGraph.Flight f : r.flights) {
+            assertEquals(at, f.from, what);
+            assertTrue(f.depart >= time + minLayover && f.arrive >= f.depart, what + ": " + f.from + "->" + f.to);
+            at = f.to;
+            time = f.arrive;
+        }
+        assertEquals(target, at, what);
+        assertEquals(r.arrivalTime, time, what);
+    }
+}
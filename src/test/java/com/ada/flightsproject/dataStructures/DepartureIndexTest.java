@@ -0,0 +1,59 @@
+package com.ada.flightsproject.dataStructures;
+
+import com.ada.flightsproject.data.FlightGraphLoader;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DepartureIndexTest {
+
+    /*
+     * Two flights leave at 10:00 on the same route, one of them only on a later date. The lookup
+     * must find both, not just whichever the binary search lands on:
+     *
+     *   AAA -> BBB  Mon 10:00 (ALWAYS)      -> 15:00
+     *               Mon 10:00 (2026-10-19)  -> 11:40   not running on the 12th
+     *               Tue 09:20 (ALWAYS)      -> 10:10
+     */
+    @Test
+    void datedFlightLeavingWithAnotherDoesNotHideIt() {
+        FlightGraph g = new FlightGraph();
+        g.addFlight("AAA", "BBB", 600, 900);
+        g.addFlight("AAA", "BBB", 600, 700, ServiceCalendar.on(LocalDate.of(2026, 10, 19)));
+        g.addFlight("AAA", "BBB", 2000, 2050);
+
+        assertEquals(900, g.earliestArrival("AAA", "BBB", LocalDateTime.of(2026, 10, 12, 10, 0), 0).arrivalTime);
+        assertEquals(900, g.earliestArrival("AAA", "BBB", LocalDateTime.of(2026, 10, 12, 9, 0), 60).arrivalTime);
+        // the week it does run, it is the better one
+        assertEquals(700, g.earliestArrival("AAA", "BBB", LocalDateTime.of(2026, 10, 19, 10, 0), 0).arrivalTime);
+    }
+
+    /*
+     * The index of a freshly loaded timetable has room left, so the first delta only re-packs the
+     * airport it touches: its new groups go after the ones in use (a full rebuild would lay all
+     * airports out again from 0), every other airport keeps its groups.
+     */
+    @Test
+    void firstDeltaAppendsInsteadOfRebuilding() {
+        FlightGraph g = new FlightGraph();
+        FlightGraphLoader.loadFlights(g, "/com/ada/flightsproject/data/FlightPathData.csv");
+        DepartureIndex before = g.departureIndex();
+        CompactGraph cg = before.graph();
+        String changed = cg.codeOf(0);
+        String other = cg.codeOf(cg.airportCount() - 1);
+
+        DepartureIndex after = g.withChanges(new TimetableDelta().add(changed, other, 100, 200)).departureIndex();
+
+        int u = cg.idOf(changed);
+        assertTrue(after.groupBegin(u) >= before.groupCount(),
+                "groups of " + changed + " start at " + after.groupBegin(u) + ", expected after " + before.groupCount());
+        for (int v = 1; v < cg.airportCount(); v++) {
+            assertEquals(before.groupBegin(v), after.groupBegin(v));
+            assertEquals(before.groupEnd(v), after.groupEnd(v));
+        }
+    }
+}
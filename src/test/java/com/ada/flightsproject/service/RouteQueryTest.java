@@ -0,0 +1,32 @@
+package com.ada.flightsproject.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteQueryTest {
+
+    @Test
+    void parsesBothForms() {
+        assertEquals(new RouteQuery("KUL", "KIX", 480, 60), RouteQuery.parse("kul, kix, Monday, 08:00, 60"));
+        assertEquals(new RouteQuery("KUL", "KIX", 480, 60), RouteQuery.parse("KUL,KIX,480,60"));
+        assertEquals(new RouteQuery("KUL", "KIX", 10079, 1440), RouteQuery.parse("KUL,KIX,Sunday,23:59,1440"));
+    }
+
+    @Test
+    void rejectsBadLines() {
+        for (String line : new String[] {
+                "KUL,KIX,480",
+                "KUL,KIX,480,60,1,2",
+                "KUL,KIX,abc,60",
+                "KUL,KIX,-1,60",
+                "KUL,KIX,10080,60",                 // past the end of the week
+                "KUL,KIX,480,1441",
+                "KUL,KIX,480,2147483647",
+                "KUL,KIX,Monday,25:99,60",
+                "KUL,KIX,Funday,08:00,60"}) {
+            assertThrows(IllegalArgumentException.class, () -> RouteQuery.parse(line), line);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ada.flightsproject.service;
+
+import com.ada.flightsproject.dataStructures.FlightGraph;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private static FlightGraph timetable() {
+        FlightGraph g = new FlightGraph();
+        g.addFlight("AAA", "BBB", 480, 600);
+        g.addFlight("BBB", "CCC", 700, 820);
+        g.addFlight("AAA", "CCC", 2000, 2300);
+        return g;
+    }
+
+    private static RouteServer start() throws Exception {
+        return new RouteServer(new FlightQueryService(timetable()), new InetSocketAddress("127.0.0.1", 0)).start();
+    }
+
+    private HttpResponse<String> get(RouteServer server, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(RouteServer server, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void routeAnswersAndRejectsBadParameters() throws Exception {
+        try (RouteServer server = start()) {
+            HttpResponse<String> ok = get(server, "/route?from=aaa&to=ccc&start=0&layover=60");
+            assertEquals(200, ok.statusCode(), ok.body());
+            assertTrue(ok.body().contains("\"arrival\":820"), ok.body());
+            assertEquals(200, get(server, "/route?from=AAA&to=CCC&day=Monday&time=08:00").statusCode());
+
+            for (String bad : new String[] {
+                    "/route?from=AAA&start=0",                              // no target
+                    "/route?from=AAA&to=CCC&start=abc",
+                    "/route?from=AAA&to=CCC&start=-1",
+                    "/route?from=AAA&to=CCC&start=10080",                   // past the end of the week
+                    "/route?from=AAA&to=CCC&start=0&layover=1441",
+                    "/route?from=AAA&to=CCC&start=0&layover=2147483647",    // would overflow the search
+                    "/route?from=AAA&to=CCC&day=Monday&time=25:99",
+                    "/route?from=AAA&to=CCC&day=Funday&time=08:00"}) {
+                HttpResponse<String> r = get(server, bad);
+                assertEquals(400, r.statusCode(), bad + " -> " + r.body());
+            }
+        }
+    }
+
+    @Test
+    void routesTakesABatchUpToMaxBatch() throws Exception {
+        try (RouteServer server = start()) {
+            HttpResponse<String> ok = post(server, "/routes?paths=false", "# header\nAAA,CCC,0,60\n\nAAA,BBB,Monday,08:20,0\n");
+            assertEquals(200, ok.statusCode(), ok.body());
+            assertTrue(ok.body().startsWith("{\"count\":2,"), ok.body());
+
+            assertEquals(400, post(server, "/routes", "AAA,CCC,0,99999\n").statusCode());
+            assertEquals(400, post(server, "/routes", "AAA,CCC,0\n").statusCode());
+
+            StringBuilder tooMany = new StringBuilder();
+            for (int i = 0; i <= RouteServer.MAX_BATCH; i++) tooMany.append("AAA,CCC,0,60\n");
+            assertEquals(413, post(server, "/routes", tooMany.toString()).statusCode());
+
+            HttpResponse<String> wrongMethod = get(server, "/routes");
+            assertEquals(405, wrongMethod.statusCode());
+            assertEquals("POST", wrongMethod.headers().firstValue("Allow").orElse(""));
+        }
+    }
+
+    /*
+     * A request still waiting for its search keeps close() in its grace period; anything arriving
+     * meanwhile gets 503, the request in progress still gets its answer.
+     */
+    @Test
+    void closeTurnsNewRequestsAway() throws Exception {
+        FlightQueryService service = new FlightQueryService(timetable(), 1, 16);
+        RouteServer server = new RouteServer(service, new InetSocketAddress("127.0.0.1", 0)).start();
+        String base = "http://127.0.0.1:" + server.port();
+
+        // occupy the only search thread, so the next query waits in its handler
+        CountDownLatch release = new CountDownLatch(1);
+        service.submit(g -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        CompletableFuture<HttpResponse<String>> inProgress = client.sendAsync(
+                HttpRequest.newBuilder(URI.create(base + "/route?from=AAA&to=CCC&start=0")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(200);
+
+        Thread closer = new Thread(server::close);
+        closer.start();
+        Thread.sleep(100);
+        HttpResponse<String> turnedAway = get(server, "/health");
+        assertEquals(503, turnedAway.statusCode(), turnedAway.body());
+
+        release.countDown();
+        assertEquals(200, inProgress.get(10, TimeUnit.SECONDS).statusCode());
+        closer.join();
+    }
+}